@@ -0,0 +1,266 @@
+/**
+ * Copyright (C) 2016 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.fabric8.jenkins.openshiftsync;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Arrays;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+
+import okhttp3.Interceptor;
+import okhttp3.Response;
+
+/**
+ * Token bucket limiting the rate of calls the plugin makes to the API server.
+ *
+ * The limiter sits in front of the HTTP client of the shared
+ * {@link io.fabric8.openshift.client.OpenShiftClient} but only throttles the
+ * calls classified with {@link #withPriority(Priority, Supplier)}; everything
+ * else, in particular the list and watch calls of the informers, goes through
+ * untouched. When calls have to wait for a token, those of a higher
+ * {@link Priority} get it first. A call which waited longer than its priority
+ * allows is rejected with a {@link RateLimitedException} instead of adding to
+ * the backlog.
+ *
+ * A rate of 0 or less disables the limiter, which is the default.
+ */
+public class ApiRateLimiter implements Interceptor {
+    private static final Logger logger = Logger.getLogger(ApiRateLimiter.class.getName());
+
+    /**
+     * Priority classes of API calls, highest first.
+     */
+    public enum Priority {
+        /** Triggering and cancelling builds. */
+        TRIGGER,
+        /** Build phase changes. */
+        PHASE,
+        /** Periodic status refreshes and background reconciliation. */
+        STATUS
+    }
+
+    private static final ApiRateLimiter INSTANCE = new ApiRateLimiter();
+
+    private static final ThreadLocal<Priority> PRIORITY = new ThreadLocal<>();
+
+    // how long a call of each priority may wait for a token before it is
+    // rejected; a rejected status refresh is simply sent again later
+    private static final long[] MAX_WAIT_MS = { 60000, 30000, 10000 };
+
+    // guarded by this
+    private double qps;
+    private double burst = 1;
+    // the bucket starts full, configure() caps it at the burst
+    private double tokens = Double.MAX_VALUE;
+    private long lastRefill = System.nanoTime();
+    private final int[] queued = new int[Priority.values().length];
+    private long acquired;
+    private long delayed;
+    private long rejected;
+
+    ApiRateLimiter() {
+    }
+
+    public static ApiRateLimiter get() {
+        return INSTANCE;
+    }
+
+    /**
+     * @param qps   the sustained number of calls per second, 0 or less to
+     *              disable the limiter
+     * @param burst the number of calls which may be made at once after a quiet
+     *              period
+     */
+    public synchronized void configure(double qps, int burst) {
+        refill(System.nanoTime());
+        this.qps = qps;
+        this.burst = Math.max(1, burst);
+        this.tokens = Math.min(tokens, this.burst);
+        logger.info(qps > 0 ? "Limiting API calls to " + qps + "/s with bursts of " + this.burst
+                : "API calls are not rate limited");
+        notifyAll();
+    }
+
+    /**
+     * Runs an API call with the given priority. Calls made outside of this
+     * method are not rate limited.
+     *
+     * @param priority the priority of the calls made by {@code call}
+     * @param call     the call to make
+     * @return the result of the call
+     */
+    public static <V> V withPriority(Priority priority, Supplier<V> call) {
+        Priority previous = PRIORITY.get();
+        PRIORITY.set(priority);
+        try {
+            return call.get();
+        } finally {
+            if (previous != null) {
+                PRIORITY.set(previous);
+            } else {
+                PRIORITY.remove();
+            }
+        }
+    }
+
+    /**
+     * @return true if the given exception, or one of its causes, is the
+     *         rejection of a call by the limiter
+     */
+    public static boolean isRateLimited(Throwable t) {
+        for (Throwable cause = t; cause != null; cause = cause.getCause()) {
+            if (cause instanceof RateLimitedException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Priority priority = PRIORITY.get();
+        if (priority == null) {
+            // informer list/watch and other unclassified calls
+            return chain.proceed(chain.request());
+        }
+        try {
+            if (!acquire(priority, MAX_WAIT_MS[priority.ordinal()])) {
+                logger.fine("Rejected " + priority + " call " + chain.request().method() + " "
+                        + chain.request().url().encodedPath() + "; " + getStatistics());
+                throw new RateLimitedException(priority);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for an API rate limit token");
+        }
+        return chain.proceed(chain.request());
+    }
+
+    /**
+     * Takes a token, waiting for one if none is available.
+     *
+     * @param priority  the priority of the call
+     * @param maxWaitMs how long to wait at most
+     * @return false if no token became available in time
+     */
+    synchronized boolean acquire(Priority priority, long maxWaitMs) throws InterruptedException {
+        int p = priority.ordinal();
+        long deadline = System.nanoTime() + MILLISECONDS.toNanos(maxWaitMs);
+        boolean waited = false;
+        try {
+            while (true) {
+                if (qps <= 0) {
+                    // disabled, possibly while we were waiting
+                    acquired++;
+                    return true;
+                }
+                long now = System.nanoTime();
+                refill(now);
+                boolean free = tokens >= 1;
+                if (free && !hasQueuedAbove(p)) {
+                    tokens -= 1;
+                    acquired++;
+                    if (waited) {
+                        delayed++;
+                    }
+                    return true;
+                }
+                if (now >= deadline) {
+                    rejected++;
+                    return false;
+                }
+                if (!waited) {
+                    waited = true;
+                    queued[p]++;
+                }
+                // when a token is free a call of higher priority is about to
+                // take it and wakes us up when it is done
+                long waitNanos = free ? deadline - now : (long) ((1 - tokens) / qps * 1e9);
+                NANOSECONDS.timedWait(this, Math.max(1, Math.min(waitNanos, deadline - now)));
+            }
+        } finally {
+            if (waited) {
+                queued[p]--;
+                notifyAll();
+            }
+        }
+    }
+
+    private boolean hasQueuedAbove(int priority) {
+        for (int i = 0; i < priority; i++) {
+            if (queued[i] > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void refill(long now) {
+        if (qps > 0) {
+            tokens = Math.min(burst, tokens + (now - lastRefill) * qps / 1e9);
+        }
+        lastRefill = now;
+    }
+
+    /**
+     * @return the number of calls waiting for a token
+     */
+    public synchronized int getQueuedCount() {
+        return Arrays.stream(queued).sum();
+    }
+
+    /**
+     * @return the number of calls waiting for a token, by priority
+     */
+    public synchronized int getQueuedCount(Priority priority) {
+        return queued[priority.ordinal()];
+    }
+
+    public synchronized long getAcquiredCount() {
+        return acquired;
+    }
+
+    /**
+     * @return the number of calls which had to wait for a token
+     */
+    public synchronized long getDelayedCount() {
+        return delayed;
+    }
+
+    public synchronized long getRejectedCount() {
+        return rejected;
+    }
+
+    public synchronized String getStatistics() {
+        return "qps=" + qps + " burst=" + burst + " queued=" + Arrays.toString(queued) + " acquired=" + acquired
+                + " delayed=" + delayed + " rejected=" + rejected;
+    }
+
+    /**
+     * Thrown when a call waited too long for a token.
+     */
+    public static class RateLimitedException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        RateLimitedException(Priority priority) {
+            super("API rate limit exceeded for " + priority + " call");
+        }
+    }
+}
@@ -35,7 +35,13 @@ public class BuildCause extends Cause {
 	private String buildConfigUid;
 	private int numStages = -1;
 	private int numFlowNodes = -1;
+	// wall clock time of the last status push, persisted with the run
 	private long lastUpdateToOpenshift = -1;
+	// digest of the last status pushed to the Build and the resourceVersion
+	// the push left it at, so that a restarted Jenkins only pushes the runs
+	// whose status diverged
+	private String lastPushedStatusHash;
+	private String lastPushedResourceVersion;
 
 	public BuildCause(String uid, String namespace, String name, String gitUri, String commit, String buildConfigUid) {
 		this.uid = uid;
@@ -139,4 +145,26 @@ public class BuildCause extends Cause {
 		this.lastUpdateToOpenshift = lastUpdateToOpenshift;
 	}
 
+	public String getLastPushedStatusHash() {
+		return lastPushedStatusHash;
+	}
+
+	public String getLastPushedResourceVersion() {
+		return lastPushedResourceVersion;
+	}
+
+	/**
+	 * Records a status push which made it to the Build.
+	 *
+	 * @param statusHash      the digest of the pushed status
+	 * @param resourceVersion the resourceVersion of the Build after the push,
+	 *                        null if unknown
+	 */
+	public void checkpoint(String statusHash, String resourceVersion) {
+		this.lastPushedStatusHash = statusHash;
+		if (resourceVersion != null) {
+			this.lastPushedResourceVersion = resourceVersion;
+		}
+	}
+
 }
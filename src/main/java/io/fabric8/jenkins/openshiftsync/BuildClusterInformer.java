@@ -17,7 +17,6 @@ package io.fabric8.jenkins.openshiftsync;
 
 import static io.fabric8.jenkins.openshiftsync.OpenShiftUtils.getInformerFactory;
 
-import java.io.IOException;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
@@ -65,6 +64,8 @@ public class BuildClusterInformer implements ResourceEventHandler<Build>, Lifecy
         SharedInformerFactory factory = getInformerFactory();
         this.informer = factory.sharedIndexInformerFor(Build.class, getListIntervalInSeconds());
         this.informer.addEventHandler(this);
+        NewBuildIndex.register(informer);
+        InformerLister.BUILDS.register(informer, namespaces);
         factory.startAllRegisteredInformers();
         LOGGER.info("Build informer started for namespace: {}" + namespaces);
 //        BuildList list = getOpenshiftClient().builds().inNamespace(namespace).list();
@@ -74,6 +75,7 @@ public class BuildClusterInformer implements ResourceEventHandler<Build>, Lifecy
     public void stop() {
       LOGGER.info("Stopping informer {} !!" + namespaces);
       if( this.informer != null ) {
+        InformerLister.BUILDS.unregister(informer);
         this.informer.stop();
       }
     }
@@ -88,12 +90,7 @@ public class BuildClusterInformer implements ResourceEventHandler<Build>, Lifecy
             if (namespaces.contains(namespace)) {
                 String name = metadata.getName();
                 LOGGER.info("Build informer received add event for: {}" + name);
-                try {
-                    BuildManager.addEventToJenkinsJobRun(obj);
-                } catch (IOException e) {
-                    // TODO Auto-generated catch block
-                    e.printStackTrace();
-                }
+                InformerEventQueue.buildAdded(obj);
             }
         }
     }
@@ -108,7 +105,7 @@ public class BuildClusterInformer implements ResourceEventHandler<Build>, Lifecy
                 String oldRv = oldObj.getMetadata().getResourceVersion();
                 String newRv = newObj.getMetadata().getResourceVersion();
                 LOGGER.info("Build informer received update event for: {} to: {}" + oldRv + " " + newRv);
-                BuildManager.modifyEventToJenkinsJobRun(newObj);
+                InformerEventQueue.buildModified(newObj);
             }
         }
     }
@@ -120,12 +117,7 @@ public class BuildClusterInformer implements ResourceEventHandler<Build>, Lifecy
             ObjectMeta metadata = obj.getMetadata();
             String namespace = metadata.getNamespace();
             if (namespaces.contains(namespace)) {
-                try {
-                    BuildManager.deleteEventToJenkinsJobRun(obj);
-                } catch (Exception e) {
-                    // TODO Auto-generated catch block
-                    e.printStackTrace();
-                }
+                InformerEventQueue.buildDeleted(obj);
             }
         }
     }
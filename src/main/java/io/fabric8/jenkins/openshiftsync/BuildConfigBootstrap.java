@@ -0,0 +1,321 @@
+/**
+ * Copyright (C) 2016 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.fabric8.jenkins.openshiftsync;
+
+import static io.fabric8.jenkins.openshiftsync.OpenShiftUtils.getFullNameParent;
+import static io.fabric8.jenkins.openshiftsync.OpenShiftUtils.getNamespace;
+import static io.fabric8.jenkins.openshiftsync.OpenShiftUtils.isPipelineStrategyBuildConfig;
+import static io.fabric8.jenkins.openshiftsync.OpenShiftUtils.jenkinsJobFullName;
+import static java.util.logging.Level.WARNING;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+import com.cloudbees.hudson.plugins.folder.Folder;
+
+import hudson.model.ItemGroup;
+import hudson.model.listeners.ItemListener;
+import hudson.security.ACL;
+import hudson.triggers.SafeTimerTask;
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
+import io.fabric8.kubernetes.client.informers.SharedIndexInformer;
+import io.fabric8.openshift.api.model.BuildConfig;
+import jenkins.model.Jenkins;
+import jenkins.security.NotReallyRoleSensitiveCallable;
+import jenkins.util.Timer;
+
+/**
+ * Creates the jobs of the BuildConfigs found by the initial list of a
+ * BuildConfig informer in one go instead of one add event at a time.
+ *
+ * BuildConfigs are grouped by the folder their job goes into. Each folder is
+ * created once up front, then the jobs are created through the
+ * {@link InformerEventQueue}, under the same key as the events of their
+ * BuildConfig so that a bootstrap and an event never write the same job
+ * concurrently or out of order. Only a few jobs are queued at a time so that
+ * the events of other BuildConfigs are not held up. Add events the informer
+ * delivers before it has synced are left to the bootstrap; later events take
+ * the usual path.
+ *
+ * The bootstrap runs on its own thread once the informer has synced. While a
+ * bootstrap runs, new namespace folders are not saved and the dependency graph
+ * is not rebuilt for each new job; once the last running bootstrap is done,
+ * each new folder is saved once and the graph is rebuilt once.
+ */
+public class BuildConfigBootstrap {
+    private static final Logger logger = Logger.getLogger(BuildConfigBootstrap.class.getName());
+
+    private static final int PROGRESS_INTERVAL = 100;
+    private static final long SYNC_CHECK_INTERVAL_MS = 250;
+
+    // the bootstrap waits for the jobs it queued, keep it off the Jenkins timer
+    private static final ExecutorService BOOTSTRAPPER = Executors
+            .newCachedThreadPool(new NamingThreadFactory(new DaemonThreadFactory(), "OpenShift BuildConfig bootstrap"));
+
+    // guarded by BuildConfigBootstrap.class
+    private static int running;
+    private static final List<Folder> newFolders = new ArrayList<>();
+
+    private BuildConfigBootstrap() {
+    }
+
+    public static boolean isEnabled() {
+        return GlobalPluginConfiguration.get().getBootstrapThreads() > 0;
+    }
+
+    /**
+     * @param informer the BuildConfig informer
+     * @return true if the add events of the informer are currently left to the
+     *         bootstrap
+     */
+    public static boolean isPending(SharedIndexInformer<BuildConfig> informer) {
+        return isEnabled() && informer != null && !informer.hasSynced();
+    }
+
+    /**
+     * @return true if a bootstrap is creating jobs, which rebuilds the
+     *         dependency graph once it is done
+     */
+    static synchronized boolean isRunning() {
+        return running > 0;
+    }
+
+    /**
+     * Leaves saving and announcing a new folder to the running bootstraps.
+     *
+     * @param folder the new folder, not saved yet
+     * @return false if no bootstrap is running and the caller has to save it
+     */
+    static synchronized boolean deferFolder(Folder folder) {
+        if (running == 0) {
+            return false;
+        }
+        newFolders.add(folder);
+        return true;
+    }
+
+    private static synchronized void started() {
+        running++;
+    }
+
+    private static void finished() {
+        List<Folder> folders;
+        synchronized (BuildConfigBootstrap.class) {
+            if (--running > 0) {
+                return;
+            }
+            folders = new ArrayList<>(newFolders);
+            newFolders.clear();
+        }
+        ACL.impersonate(ACL.SYSTEM, () -> {
+            for (Folder folder : folders) {
+                try {
+                    folder.save();
+                } catch (IOException e) {
+                    logger.log(WARNING, "Failed to save the Folder: " + folder.getFullName(), e);
+                }
+                ItemListener.fireOnCreated(folder);
+            }
+        });
+        Jenkins.getActiveInstance().rebuildDependencyGraphAsync();
+    }
+
+    /**
+     * Bootstraps the jobs of the BuildConfigs of the given namespaces once the
+     * informer has synced.
+     *
+     * @param informer   the started BuildConfig informer
+     * @param namespaces the namespaces to create jobs for
+     */
+    public static void afterSync(SharedIndexInformer<BuildConfig> informer, Collection<String> namespaces) {
+        if (isEnabled()) {
+            Timer.get().schedule(new SyncWaiter(informer, namespaces), SYNC_CHECK_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private static class SyncWaiter extends SafeTimerTask {
+        private final SharedIndexInformer<BuildConfig> informer;
+        private final Collection<String> namespaces;
+
+        SyncWaiter(SharedIndexInformer<BuildConfig> informer, Collection<String> namespaces) {
+            this.informer = informer;
+            this.namespaces = namespaces;
+        }
+
+        @Override
+        protected void doRun() throws Exception {
+            if (!informer.isRunning()) {
+                return;
+            }
+            if (!informer.hasSynced()) {
+                Timer.get().schedule(this, SYNC_CHECK_INTERVAL_MS, TimeUnit.MILLISECONDS);
+                return;
+            }
+            List<BuildConfig> buildConfigs = new ArrayList<>();
+            for (BuildConfig bc : informer.getIndexer().list()) {
+                if (namespaces.contains(bc.getMetadata().getNamespace())) {
+                    buildConfigs.add(bc);
+                }
+            }
+            BOOTSTRAPPER.execute(() -> ACL.impersonate(ACL.SYSTEM, () -> {
+                Report report = bootstrap(buildConfigs);
+                logger.info("Bootstrapped jobs of BuildConfigs in " + namespaces + ": " + report);
+                // poke the builds which arrived before their BuildConfig
+                BuildManager.flushBuildsWithNoBCList();
+            }));
+        }
+    }
+
+    /**
+     * Creates or updates the jobs of the given BuildConfigs.
+     *
+     * @param buildConfigs the BuildConfigs
+     * @return what was done
+     */
+    public static Report bootstrap(List<BuildConfig> buildConfigs) {
+        long start = System.currentTimeMillis();
+        // full name of the parent folder -> BuildConfigs whose job goes there
+        Map<String, List<BuildConfig>> byFolder = new LinkedHashMap<>();
+        for (BuildConfig bc : buildConfigs) {
+            if (isPipelineStrategyBuildConfig(bc)) {
+                String fullName = jenkinsJobFullName(bc);
+                int idx = fullName.lastIndexOf('/');
+                String folder = idx > 0 ? fullName.substring(0, idx) : "";
+                byFolder.computeIfAbsent(folder, k -> new ArrayList<>()).add(bc);
+            }
+        }
+        Report report = new Report(byFolder.values().stream().mapToInt(List::size).sum(), start);
+        if (report.total == 0) {
+            report.finish();
+            return report;
+        }
+
+        // leave event workers to the events of other BuildConfigs
+        Semaphore slots = new Semaphore(Math.max(1, GlobalPluginConfiguration.get().getBootstrapThreads()));
+        List<Future<Void>> futures = new ArrayList<>();
+        started();
+        try {
+            for (List<BuildConfig> group : byFolder.values()) {
+                // create the folder once, before any of its jobs
+                BuildConfig first = group.get(0);
+                ACL.impersonate(ACL.SYSTEM, new NotReallyRoleSensitiveCallable<ItemGroup, RuntimeException>() {
+                    @Override
+                    public ItemGroup call() {
+                        return getFullNameParent(Jenkins.getActiveInstance(), jenkinsJobFullName(first),
+                                getNamespace(first));
+                    }
+                });
+                for (BuildConfig bc : group) {
+                    slots.acquire();
+                    futures.add(InformerEventQueue.buildConfigBootstrapped(bc).whenComplete((v, t) -> {
+                        slots.release();
+                        if (t != null) {
+                            report.failed.incrementAndGet();
+                            logger.log(WARNING, "Failed to create job for BuildConfig " + NamespaceName.create(bc), t);
+                        } else {
+                            report.done();
+                        }
+                    }));
+                }
+            }
+            for (Future<Void> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    // logged above, the event queue retries it
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            // saves the new folders and rebuilds the dependency graph
+            finished();
+        }
+        report.finish();
+        return report;
+    }
+
+    /**
+     * Progress and outcome of a bootstrap.
+     */
+    public static class Report {
+        private final int total;
+        private final long start;
+        private final AtomicInteger completed = new AtomicInteger();
+        private final AtomicInteger failed = new AtomicInteger();
+        private volatile long durationMillis;
+
+        Report(int total, long start) {
+            this.total = total;
+            this.start = start;
+        }
+
+        private void done() {
+            int count = completed.incrementAndGet();
+            if (count % PROGRESS_INTERVAL == 0) {
+                logger.info("Bootstrapped " + count + "/" + total + " jobs, " + getJobsPerSecond(
+                        System.currentTimeMillis() - start) + " jobs/s");
+            }
+        }
+
+        private void finish() {
+            durationMillis = System.currentTimeMillis() - start;
+        }
+
+        private double getJobsPerSecond(long millis) {
+            return millis > 0 ? Math.round(completed.get() * 10000.0 / millis) / 10.0 : completed.get();
+        }
+
+        public int getTotal() {
+            return total;
+        }
+
+        public int getCompleted() {
+            return completed.get();
+        }
+
+        public int getFailed() {
+            return failed.get();
+        }
+
+        public long getDurationMillis() {
+            return durationMillis;
+        }
+
+        public double getJobsPerSecond() {
+            return getJobsPerSecond(durationMillis);
+        }
+
+        @Override
+        public String toString() {
+            return "total=" + total + " completed=" + getCompleted() + " failed=" + getFailed() + " durationMs="
+                    + durationMillis + " jobsPerSecond=" + getJobsPerSecond();
+        }
+    }
+}
@@ -56,7 +56,9 @@ public class BuildConfigClusterInformer implements ResourceEventHandler<BuildCon
         SharedInformerFactory factory = getInformerFactory();
         this.informer = factory.sharedIndexInformerFor(BuildConfig.class, getListIntervalInSeconds());
         informer.addEventHandler(this);
+        InformerLister.BUILD_CONFIGS.register(informer, namespaces);
         factory.startAllRegisteredInformers();
+        BuildConfigBootstrap.afterSync(informer, namespaces);
         LOGGER.info("BuildConfig informer started for namespace: {}" + namespaces);
         // BuildConfigList list =
         // getOpenshiftClient().buildConfigs().inNamespace(namespace).list();
@@ -66,6 +68,7 @@ public class BuildConfigClusterInformer implements ResourceEventHandler<BuildCon
     public void stop() {
       LOGGER.info("Stopping informer {} !!" + namespaces);
       if( this.informer != null ) {
+        InformerLister.BUILD_CONFIGS.unregister(informer);
         this.informer.stop();
       }
     }
@@ -81,12 +84,11 @@ public class BuildConfigClusterInformer implements ResourceEventHandler<BuildCon
             if (namespaces.contains(namespace)) {
                 String name = metadata.getName();
                 LOGGER.info("BuildConfig informer received add event for: {}" + name);
-                try {
-                    BuildConfigManager.upsertJob(obj);
-                } catch (Exception e) {
-                    // TODO Auto-generated catch block
-                    e.printStackTrace();
+                if (BuildConfigBootstrap.isPending(informer)) {
+                    // part of the initial list, the bootstrap creates its job
+                    return;
                 }
+                InformerEventQueue.buildConfigAdded(obj, false);
             }
         }
     }
@@ -101,12 +103,7 @@ public class BuildConfigClusterInformer implements ResourceEventHandler<BuildCon
                 String oldRv = oldObj.getMetadata().getResourceVersion();
                 String newRv = newObj.getMetadata().getResourceVersion();
                 LOGGER.info("BuildConfig informer received update event for: {} to: {}" + oldRv + " " + newRv);
-                try {
-                    BuildConfigManager.modifyEventToJenkinsJob(newObj);
-                } catch (Exception e) {
-                    // TODO Auto-generated catch block
-                    e.printStackTrace();
-                }
+                InformerEventQueue.buildConfigModified(newObj, false);
             }
         }
     }
@@ -118,12 +115,7 @@ public class BuildConfigClusterInformer implements ResourceEventHandler<BuildCon
             ObjectMeta metadata = obj.getMetadata();
             String namespace = metadata.getNamespace();
             if (namespaces.contains(namespace)) {
-                try {
-                    BuildConfigManager.deleteEventToJenkinsJob(obj);
-                } catch (Exception e) {
-                    // TODO Auto-generated catch block
-                    e.printStackTrace();
-                }
+                InformerEventQueue.buildConfigDeleted(obj);
             }
         }
     }
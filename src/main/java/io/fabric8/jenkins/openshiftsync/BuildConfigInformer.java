@@ -17,6 +17,7 @@ package io.fabric8.jenkins.openshiftsync;
 
 import static io.fabric8.jenkins.openshiftsync.OpenShiftUtils.getInformerFactory;
 
+import java.util.Collections;
 import java.util.List;
 
 import org.slf4j.Logger;
@@ -53,7 +54,9 @@ public class BuildConfigInformer implements ResourceEventHandler<BuildConfig>, L
         SharedInformerFactory factory = getInformerFactory().inNamespace(namespace);
         this.informer = factory.sharedIndexInformerFor(BuildConfig.class, getResyncPeriodMilliseconds());
         informer.addEventHandler(this);
+        InformerLister.BUILD_CONFIGS.register(informer, Collections.singleton(namespace));
         factory.startAllRegisteredInformers();
+        BuildConfigBootstrap.afterSync(informer, Collections.singleton(namespace));
         LOGGER.info("BuildConfig informer started for namespace: {}" + namespace);
         // BuildConfigList list =
         // getOpenshiftClient().buildConfigs().inNamespace(namespace).list();
@@ -63,6 +66,7 @@ public class BuildConfigInformer implements ResourceEventHandler<BuildConfig>, L
     public void stop() {
         LOGGER.info("Stopping informer {} !!" + namespace);
         if( this.informer != null ) {
+          InformerLister.BUILD_CONFIGS.unregister(informer);
           this.informer.stop();
         }
     }
@@ -74,13 +78,11 @@ public class BuildConfigInformer implements ResourceEventHandler<BuildConfig>, L
             ObjectMeta metadata = obj.getMetadata();
             String name = metadata.getName();
             LOGGER.info("BuildConfig informer received add event for: {}" + name);
-            try {
-                BuildConfigManager.upsertJob(obj);
-                BuildManager.flushBuildsWithNoBCList();
-            } catch (Exception e) {
-                // TODO Auto-generated catch block
-                e.printStackTrace();
+            if (BuildConfigBootstrap.isPending(informer)) {
+                // part of the initial list, the bootstrap creates its job
+                return;
             }
+            InformerEventQueue.buildConfigAdded(obj, true);
         }
     }
 
@@ -91,13 +93,7 @@ public class BuildConfigInformer implements ResourceEventHandler<BuildConfig>, L
             String oldRv = oldObj.getMetadata().getResourceVersion();
             String newRv = newObj.getMetadata().getResourceVersion();
             LOGGER.info("BuildConfig informer received update event for: {} to: {}" + oldRv + " " + newRv);
-            try {
-                BuildConfigManager.modifyEventToJenkinsJob(newObj);
-                BuildManager.flushBuildsWithNoBCList();
-            } catch (Exception e) {
-                // TODO Auto-generated catch block
-                e.printStackTrace();
-            }
+            InformerEventQueue.buildConfigModified(newObj, true);
         }
     }
 
@@ -105,12 +101,7 @@ public class BuildConfigInformer implements ResourceEventHandler<BuildConfig>, L
     public void onDelete(BuildConfig obj, boolean deletedFinalStateUnknown) {
         LOGGER.info("BuildConfig informer received delete event for: {}" + obj);
         if (obj != null) {
-            try {
-                BuildConfigManager.deleteEventToJenkinsJob(obj);
-            } catch (Exception e) {
-                // TODO Auto-generated catch block
-                e.printStackTrace();
-            }
+            InformerEventQueue.buildConfigDeleted(obj);
         }
     }
 
@@ -16,14 +16,19 @@
 package io.fabric8.jenkins.openshiftsync;
 
 import hudson.Extension;
+import hudson.Util;
 import hudson.model.Job;
 import hudson.model.JobProperty;
 import hudson.model.JobPropertyDescriptor;
+import io.fabric8.kubernetes.api.model.EnvVar;
 import io.fabric8.openshift.api.model.BuildConfig;
+import io.fabric8.openshift.api.model.BuildConfigSpec;
+import io.fabric8.openshift.api.model.BuildSource;
+import io.fabric8.openshift.api.model.BuildStrategy;
+import io.fabric8.openshift.api.model.JenkinsPipelineBuildStrategy;
 import org.jenkinsci.plugins.workflow.job.WorkflowJob;
 import org.kohsuke.stapler.DataBoundConstructor;
 
-import static io.fabric8.jenkins.openshiftsync.OpenShiftUtils.getAuthenticatedOpenShiftClient;
 
 /**
  * Stores the OpenShift Build Config related project properties.
@@ -44,6 +49,9 @@ public class BuildConfigProjectProperty extends JobProperty<Job<?, ?>> {
 
     private String buildRunPolicy;
 
+    // Digest of the BuildConfig fields the job was last generated from.
+    private String buildConfigFingerprint;
+
     @DataBoundConstructor
     public BuildConfigProjectProperty(String namespace, String name,
             String uid, String resourceVersion, String buildRunPolicy) {
@@ -61,8 +69,7 @@ public class BuildConfigProjectProperty extends JobProperty<Job<?, ?>> {
     }
 
     public BuildConfig getBuildConfig() {
-        BuildConfig bc = getAuthenticatedOpenShiftClient().buildConfigs()
-                .inNamespace(namespace).withName(name).get();
+        BuildConfig bc = OpenShiftUtils.getBuildConfig(namespace, name);
         if (bc != null && bc.getMetadata().getUid().equals(uid)) {
             return bc;
         }
@@ -109,6 +116,71 @@ public class BuildConfigProjectProperty extends JobProperty<Job<?, ?>> {
         this.buildRunPolicy = buildRunPolicy;
     }
 
+    public String getBuildConfigFingerprint() {
+        return buildConfigFingerprint;
+    }
+
+    public void setBuildConfigFingerprint(String buildConfigFingerprint) {
+        this.buildConfigFingerprint = buildConfigFingerprint;
+    }
+
+    /**
+     * Digest of the BuildConfig fields the job is generated from: identity, run
+     * policy, the Jenkinsfile or its path, the env vars turned into parameters
+     * and the git source with its credentials. Anything else, e.g. the resource
+     * version or the status, does not change the fingerprint.
+     *
+     * @param bc the BuildConfig
+     * @return the fingerprint of the BuildConfig
+     */
+    public static String fingerprintOf(BuildConfig bc) {
+        StringBuilder sb = new StringBuilder();
+        append(sb, bc.getMetadata().getUid());
+        append(sb, bc.getMetadata().getNamespace());
+        append(sb, bc.getMetadata().getName());
+        BuildConfigSpec spec = bc.getSpec();
+        if (spec != null) {
+            append(sb, spec.getRunPolicy());
+            BuildStrategy strategy = spec.getStrategy();
+            if (strategy != null) {
+                append(sb, strategy.getType());
+                JenkinsPipelineBuildStrategy pipeline = strategy.getJenkinsPipelineStrategy();
+                if (pipeline != null) {
+                    append(sb, pipeline.getJenkinsfile());
+                    append(sb, pipeline.getJenkinsfilePath());
+                    if (pipeline.getEnv() != null) {
+                        for (EnvVar env : pipeline.getEnv()) {
+                            append(sb, env.getName());
+                            append(sb, env.getValue());
+                        }
+                    }
+                }
+            }
+            BuildSource source = spec.getSource();
+            if (source != null) {
+                append(sb, source.getContextDir());
+                if (source.getGit() != null) {
+                    append(sb, source.getGit().getUri());
+                    append(sb, source.getGit().getRef());
+                }
+                if (source.getSourceSecret() != null) {
+                    append(sb, source.getSourceSecret().getName());
+                }
+            }
+        }
+        return Util.getDigestOf(sb.toString());
+    }
+
+    // length prefixed so that values cannot run into each other, e.g. a
+    // Jenkinsfile spanning several lines
+    private static void append(StringBuilder sb, String value) {
+        if (value == null) {
+            sb.append("-\n");
+        } else {
+            sb.append(value.length()).append(':').append(value).append('\n');
+        }
+    }
+
     @Extension
     public static final class DescriptorImpl extends JobPropertyDescriptor {
         public boolean isApplicable(Class<? extends Job> jobType) {
@@ -32,6 +32,8 @@ import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import static io.fabric8.jenkins.openshiftsync.ApiRateLimiter.withPriority;
+import static io.fabric8.jenkins.openshiftsync.ApiRateLimiter.Priority.TRIGGER;
 import static io.fabric8.jenkins.openshiftsync.BuildSyncRunListener.joinPaths;
 import static io.fabric8.jenkins.openshiftsync.OpenShiftUtils.getAuthenticatedOpenShiftClient;
 import static io.fabric8.jenkins.openshiftsync.OpenShiftUtils.getJenkinsURL;
@@ -59,7 +61,7 @@ public class BuildDecisionHandler extends Queue.QueueDecisionHandler {
                         getJenkinsURL(getAuthenticatedOpenShiftClient(),
                                 namespace), wj.getUrl());
 
-                Build ret = getAuthenticatedOpenShiftClient()
+                Build ret = withPriority(TRIGGER, () -> getAuthenticatedOpenShiftClient()
                         .buildConfigs()
                         .inNamespace(namespace)
                         .withName(buildConfigProjectProperty.getName())
@@ -73,7 +75,7 @@ public class BuildDecisionHandler extends Queue.QueueDecisionHandler {
                                         .addNewTriggeredBy()
                                         .withMessage(
                                                 "Triggered by Jenkins job at "
-                                                        + jobURL).and().build());
+                                                        + jobURL).and().build()));
 
                 ParametersAction params = dumpParams(actions);
                 if (LOGGER.isLoggable(Level.FINE)) {
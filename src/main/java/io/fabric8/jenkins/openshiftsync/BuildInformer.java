@@ -17,7 +17,6 @@ package io.fabric8.jenkins.openshiftsync;
 
 import static io.fabric8.jenkins.openshiftsync.OpenShiftUtils.getInformerFactory;
 
-import java.io.IOException;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -62,6 +61,8 @@ public class BuildInformer implements ResourceEventHandler<Build>, Lifecyclable
         SharedInformerFactory factory = getInformerFactory().inNamespace(namespace);
         this.informer = factory.sharedIndexInformerFor(Build.class, getResyncPeriodMilliseconds());
         this.informer.addEventHandler(this);
+        NewBuildIndex.register(informer);
+        InformerLister.BUILDS.register(informer, Collections.singleton(namespace));
         factory.startAllRegisteredInformers();
         LOGGER.info("Build informer started for namespace: {}" + namespace);
 //        BuildList list = getOpenshiftClient().builds().inNamespace(namespace).list();
@@ -71,6 +72,7 @@ public class BuildInformer implements ResourceEventHandler<Build>, Lifecyclable
     public void stop() {
       LOGGER.info("Stopping informer {} !!" + namespace);
       if( this.informer != null ) {
+        InformerLister.BUILDS.unregister(informer);
         this.informer.stop();
       }
     }
@@ -82,12 +84,7 @@ public class BuildInformer implements ResourceEventHandler<Build>, Lifecyclable
             ObjectMeta metadata = obj.getMetadata();
             String name = metadata.getName();
             LOGGER.info("Build informer received add event for: {}" + name);
-            try {
-                BuildManager.addEventToJenkinsJobRun(obj);
-            } catch (IOException e) {
-                // TODO Auto-generated catch block
-                e.printStackTrace();
-            }
+            InformerEventQueue.buildAdded(obj);
         }
     }
 
@@ -98,7 +95,7 @@ public class BuildInformer implements ResourceEventHandler<Build>, Lifecyclable
             String oldRv = oldObj.getMetadata().getResourceVersion();
             String newRv = newObj.getMetadata().getResourceVersion();
             LOGGER.info("Build informer received update event for: {} to: {}" + oldRv + " " + newRv);
-            BuildManager.modifyEventToJenkinsJobRun(newObj);
+            InformerEventQueue.buildModified(newObj);
         }
     }
 
@@ -106,12 +103,7 @@ public class BuildInformer implements ResourceEventHandler<Build>, Lifecyclable
     public void onDelete(Build obj, boolean deletedFinalStateUnknown) {
         LOGGER.info("Build informer received delete event for: {}" + obj);
         if (obj != null) {
-            try {
-                BuildManager.deleteEventToJenkinsJobRun(obj);
-            } catch (Exception e) {
-                // TODO Auto-generated catch block
-                e.printStackTrace();
-            }
+            InformerEventQueue.buildDeleted(obj);
         }
     }
 
@@ -26,7 +26,7 @@ import static io.fabric8.jenkins.openshiftsync.JenkinsUtils.getJobFromBuild;
 import static io.fabric8.jenkins.openshiftsync.JenkinsUtils.handleBuildList;
 import static io.fabric8.jenkins.openshiftsync.JenkinsUtils.triggerJob;
 import static io.fabric8.jenkins.openshiftsync.OpenShiftUtils.getLabel;
-import static io.fabric8.jenkins.openshiftsync.OpenShiftUtils.getAuthenticatedOpenShiftClient;
+import static io.fabric8.jenkins.openshiftsync.OpenShiftUtils.getBuildConfig;
 import static io.fabric8.jenkins.openshiftsync.OpenShiftUtils.isCancellable;
 import static io.fabric8.jenkins.openshiftsync.OpenShiftUtils.isCancelled;
 import static io.fabric8.jenkins.openshiftsync.OpenShiftUtils.isNew;
@@ -36,13 +36,12 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
-import java.util.ConcurrentModificationException;
 import java.util.Iterator;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -56,7 +55,6 @@ import io.fabric8.openshift.api.model.Build;
 import io.fabric8.openshift.api.model.BuildConfig;
 import io.fabric8.openshift.api.model.BuildList;
 import io.fabric8.openshift.api.model.BuildStatus;
-import io.fabric8.openshift.client.OpenShiftClient;
 import jenkins.model.Jenkins;
 import jenkins.security.NotReallyRoleSensitiveCallable;
 
@@ -70,9 +68,11 @@ public class BuildManager {
    * events when both are created in a simultaneous fashion, there is an up to 5
    * minute delay before the job run gets kicked off started seeing duplicate
    * builds getting kicked off so quit depending on so moved off of concurrent
-   * hash set to concurrent hash map using namepace/name key
+   * hash set to concurrent hash map using namepace/name key; the builds are
+   * indexed by build config so that a build config event only flushes its own
+   * builds, and forgotten after an hour
    */
-  protected static final ConcurrentHashMap<String, Build> buildsWithNoBCList = new ConcurrentHashMap<String, Build>();
+  protected static final PendingBuilds buildsWithNoBCList = new PendingBuilds(TimeUnit.HOURS.toMillis(1), 10000);
 
   public static void onInitialBuilds(BuildList buildList) {
     if (buildList == null)
@@ -126,8 +126,7 @@ public class BuildManager {
         String bcMapKey = namespace + "/" + buildConfigName;
         BuildConfig bc = buildConfigMap.get(bcMapKey);
         if (bc == null) {
-          bc = getAuthenticatedOpenShiftClient().buildConfigs().inNamespace(namespace)
-            .withName(buildConfigName).get();
+          bc = getBuildConfig(namespace, buildConfigName);
           if (bc == null) {
             // if the bc is not there via a REST get, then it is not
             // going to be, and we are not handling manual creation
@@ -184,9 +183,9 @@ public class BuildManager {
       } else {
         removeBuildFromNoBCList(build);
       }
-    } else {
+    } else if (status != null && status.getConfig() != null) {
       // see if any pre-BC cached builds can now be flushed
-      flushBuildsWithNoBCList();
+      flushBuildsWithNoBCList(build.getMetadata().getNamespace(), status.getConfig().getName());
     }
   }
 
@@ -218,28 +217,27 @@ public class BuildManager {
     // should have been caught upstack, but just in case since public method
     if (!OpenShiftUtils.isPipelineStrategyBuild(build))
       return;
-    try {
-      buildsWithNoBCList.put(build.getMetadata().getNamespace() + build.getMetadata().getName(), build);
-    } catch (ConcurrentModificationException | IllegalArgumentException | UnsupportedOperationException
-      | NullPointerException e) {
-      logger.log(Level.WARNING, "Failed to add item " + build.getMetadata().getName(), e);
-    }
+    buildsWithNoBCList.add(build, System.currentTimeMillis());
   }
 
   static void removeBuildFromNoBCList(Build build) {
-    buildsWithNoBCList.remove(build.getMetadata().getNamespace() + build.getMetadata().getName());
+    buildsWithNoBCList.remove(build);
   }
 
   // trigger any builds whose watch events arrived before the
   // corresponding build config watch events
   public static void flushBuildsWithNoBCList() {
+    flushBuildsWithNoBCList(buildsWithNoBCList.getAll(System.currentTimeMillis()));
+  }
 
-    ConcurrentHashMap<String, Build> clone = null;
-    synchronized (buildsWithNoBCList) {
-      clone = new ConcurrentHashMap<String, Build>(buildsWithNoBCList);
-    }
-    boolean anyRemoveFailures = false;
-    for (Build build : clone.values()) {
+  // trigger the builds of the given build config whose watch events arrived
+  // before the build config watch event
+  public static void flushBuildsWithNoBCList(String namespace, String buildConfigName) {
+    flushBuildsWithNoBCList(buildsWithNoBCList.get(namespace, buildConfigName, System.currentTimeMillis()));
+  }
+
+  private static void flushBuildsWithNoBCList(List<Build> builds) {
+    for (Build build : builds) {
       WorkflowJob job = getJobFromBuild(build);
       if (job != null) {
         try {
@@ -248,28 +246,7 @@ public class BuildManager {
         } catch (IOException e) {
           logger.log(Level.WARNING, "flushBuildsWithNoBCList", e);
         }
-        try {
-          synchronized (buildsWithNoBCList) {
-            removeBuildFromNoBCList(build);
-          }
-        } catch (Throwable t) {
-          // TODO
-          // concurrent mod exceptions are not suppose to occur
-          // with concurrent hash set; this try/catch with log
-          // and the anyRemoveFailures post processing is a bit
-          // of safety paranoia until this proves to be true
-          // over extended usage ... probably can remove at some
-          // point
-          anyRemoveFailures = true;
-          logger.log(Level.WARNING, "flushBuildsWithNoBCList", t);
-        }
-      }
-
-      synchronized (buildsWithNoBCList) {
-        if (anyRemoveFailures && buildsWithNoBCList.size() > 0) {
-          buildsWithNoBCList.clear();
-        }
-
+        removeBuildFromNoBCList(build);
       }
     }
   }
@@ -335,33 +312,8 @@ public class BuildManager {
      */
     static void reconcileRunsAndBuilds() {
         logger.fine("Reconciling job runs and builds");
-        List<WorkflowJob> jobs = Jenkins.getActiveInstance().getAllItems(WorkflowJob.class);
-        for (WorkflowJob job : jobs) {
-            BuildConfigProjectProperty property = job.getProperty(BuildConfigProjectProperty.class);
-            if (property != null) {
-                String ns = property.getNamespace();
-                String name = property.getName();
-                if (StringUtils.isNotBlank(ns) && StringUtils.isNotBlank(name)) {
-                    logger.fine("Checking job " + job + " runs for BuildConfig " + ns + "/" + name);
-                    OpenShiftClient client = getAuthenticatedOpenShiftClient();
-                    BuildList builds = client.builds().inNamespace(ns).withLabel("buildconfig=" + name).list();
-                    for (WorkflowRun run : job.getBuilds()) {
-                        boolean found = false;
-                        BuildCause cause = run.getCause(BuildCause.class);
-                        for (Build build : builds.getItems()) {
-                            if (cause != null && cause.getUid().equals(build.getMetadata().getUid())) {
-                                found = true;
-                                break;
-                            }
-                        }
-                        if (!found) {
-                            deleteRun(run);
-                        }
-                    }
-                }
-            }
-
-        }
+        RunReconciler.Report report = RunReconciler.reconcile();
+        logger.info("Reconciled job runs and builds: " + report);
     }
 
 }
@@ -0,0 +1,54 @@
+/**
+ * Copyright (C) 2016 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.fabric8.jenkins.openshiftsync;
+
+import java.util.List;
+
+import hudson.model.Action;
+import hudson.model.InvisibleAction;
+import hudson.model.Queue;
+
+/**
+ * Ties a queue item to the OpenShift Build it was scheduled for.
+ *
+ * Jenkins folds the causes of a new schedule request into an item already in
+ * the queue when their parameters are the same, which would give two Builds a
+ * single run. An item holding this action only accepts requests for the same
+ * Build, so each Build gets its own queue item and run whatever the timing.
+ */
+public class BuildQueueAction extends InvisibleAction implements Queue.QueueAction {
+
+    private final String buildUid;
+
+    public BuildQueueAction(String buildUid) {
+        this.buildUid = buildUid;
+    }
+
+    public String getBuildUid() {
+        return buildUid;
+    }
+
+    @Override
+    public boolean shouldSchedule(List<Action> actions) {
+        for (Action action : actions) {
+            if (action instanceof BuildQueueAction && buildUid != null
+                    && buildUid.equals(((BuildQueueAction) action).buildUid)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,175 @@
+/**
+ * Copyright (C) 2016 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.fabric8.jenkins.openshiftsync;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * A pending change to the status of an OpenShift {@link io.fabric8.openshift.api.model.Build}:
+ * annotations to set or remove, and the phase and timestamps. A null field
+ * means "leave as is", so two updates for the same Build can be merged with
+ * the most recent value of each field winning.
+ */
+public class BuildStatusUpdate {
+
+    private final String namespace;
+    private final String name;
+    private final String uid;
+    private final Map<String, String> annotations;
+    private final Set<String> removedAnnotations;
+    private final String phase;
+    private final String startTimestamp;
+    private final String completionTimestamp;
+    private final long enqueuedAt;
+    private final Runnable onNotFound;
+    private final Consumer<String> onWritten;
+
+    public BuildStatusUpdate(String namespace, String name, String uid, Map<String, String> annotations,
+            Set<String> removedAnnotations, String phase, String startTimestamp, String completionTimestamp,
+            Runnable onNotFound) {
+        this(namespace, name, uid, annotations, removedAnnotations, phase, startTimestamp, completionTimestamp,
+                onNotFound, null, System.currentTimeMillis());
+    }
+
+    private BuildStatusUpdate(String namespace, String name, String uid, Map<String, String> annotations,
+            Set<String> removedAnnotations, String phase, String startTimestamp, String completionTimestamp,
+            Runnable onNotFound, Consumer<String> onWritten, long enqueuedAt) {
+        this.namespace = namespace;
+        this.name = name;
+        this.uid = uid;
+        this.annotations = annotations != null ? annotations : Collections.<String, String>emptyMap();
+        this.removedAnnotations = removedAnnotations != null ? removedAnnotations : Collections.<String>emptySet();
+        this.phase = phase;
+        this.startTimestamp = startTimestamp;
+        this.completionTimestamp = completionTimestamp;
+        this.onNotFound = onNotFound;
+        this.onWritten = onWritten;
+        this.enqueuedAt = enqueuedAt;
+    }
+
+    /**
+     * Creates an update which only changes the phase of the given build.
+     */
+    public static BuildStatusUpdate phaseUpdate(String namespace, String name, String uid, String phase) {
+        return new BuildStatusUpdate(namespace, name, uid, null, null, phase, null, null, null);
+    }
+
+    /**
+     * @param callback called with the resourceVersion of the Build once the
+     *                 update made it there, or with null if the Build already
+     *                 had this status
+     * @return a copy of this update with the given callback
+     */
+    public BuildStatusUpdate onWritten(Consumer<String> callback) {
+        return new BuildStatusUpdate(namespace, name, uid, annotations, removedAnnotations, phase, startTimestamp,
+                completionTimestamp, onNotFound, callback, enqueuedAt);
+    }
+
+    /**
+     * Merges this (newer) update on top of an older pending one for the same
+     * Build. Fields set here win, fields left null keep the older value. The
+     * enqueue time of the older update is kept so that flush latency reflects
+     * how long the Build has been waiting for a write.
+     *
+     * @param older the update which was still pending
+     * @return the combined update
+     */
+    public BuildStatusUpdate mergeWith(BuildStatusUpdate older) {
+        if (older == null) {
+            return this;
+        }
+        Map<String, String> mergedAnnotations = new HashMap<>(older.annotations);
+        Set<String> mergedRemovals = new HashSet<>(older.removedAnnotations);
+        for (String key : removedAnnotations) {
+            mergedAnnotations.remove(key);
+        }
+        mergedRemovals.removeAll(annotations.keySet());
+        mergedRemovals.addAll(removedAnnotations);
+        mergedAnnotations.putAll(annotations);
+        return new BuildStatusUpdate(namespace, name, uid, mergedAnnotations, mergedRemovals,
+                phase != null ? phase : older.phase,
+                startTimestamp != null ? startTimestamp : older.startTimestamp,
+                completionTimestamp != null ? completionTimestamp : older.completionTimestamp,
+                onNotFound != null ? onNotFound : older.onNotFound, onWritten != null ? onWritten : older.onWritten,
+                Math.min(enqueuedAt, older.enqueuedAt));
+    }
+
+    /**
+     * @return the key updates are coalesced on, the Build UID when known
+     */
+    public String getKey() {
+        return uid != null ? uid : namespace + "/" + name;
+    }
+
+    public String getNamespace() {
+        return namespace;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getUid() {
+        return uid;
+    }
+
+    public Map<String, String> getAnnotations() {
+        return annotations;
+    }
+
+    public Set<String> getRemovedAnnotations() {
+        return removedAnnotations;
+    }
+
+    public String getPhase() {
+        return phase;
+    }
+
+    public String getStartTimestamp() {
+        return startTimestamp;
+    }
+
+    public String getCompletionTimestamp() {
+        return completionTimestamp;
+    }
+
+    public long getEnqueuedAt() {
+        return enqueuedAt;
+    }
+
+    void notFound() {
+        if (onNotFound != null) {
+            onNotFound.run();
+        }
+    }
+
+    void written(String resourceVersion) {
+        if (onWritten != null) {
+            onWritten.accept(resourceVersion);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "BuildStatusUpdate{" + namespace + "/" + name + ", phase=" + phase + ", annotations="
+                + annotations.keySet() + ", removed=" + removedAnnotations + "}";
+    }
+}
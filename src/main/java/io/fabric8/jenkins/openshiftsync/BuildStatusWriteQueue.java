@@ -0,0 +1,380 @@
+/**
+ * Copyright (C) 2016 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.fabric8.jenkins.openshiftsync;
+
+import static io.fabric8.jenkins.openshiftsync.BuildPhases.CANCELLED;
+import static io.fabric8.jenkins.openshiftsync.OpenShiftUtils.getAuthenticatedOpenShiftClient;
+import static java.net.HttpURLConnection.HTTP_NOT_FOUND;
+import static java.util.logging.Level.FINE;
+import static java.util.logging.Level.WARNING;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+
+import hudson.triggers.SafeTimerTask;
+import io.fabric8.jenkins.openshiftsync.ApiRateLimiter.Priority;
+import io.fabric8.kubernetes.client.KubernetesClientException;
+import io.fabric8.kubernetes.client.dsl.base.PatchContext;
+import io.fabric8.kubernetes.client.dsl.base.PatchType;
+import io.fabric8.openshift.api.model.Build;
+import jenkins.util.Timer;
+
+/**
+ * Outbound queue for OpenShift Build status writes.
+ *
+ * Only the latest pending {@link BuildStatusUpdate} is kept per Build UID: a
+ * newer update for a Build that has not been written yet is merged into the
+ * pending one. Pending updates are flushed on a configurable cadence by a
+ * bounded pool of writers taking turns between namespaces, and at most one
+ * write per Build is in flight at any time so that an older status can never
+ * overwrite a newer one.
+ *
+ * Writes are JSON merge patches holding only the fields which differ from what
+ * was last written to the Build; updates which change nothing are dropped.
+ * Failed writes are retried with an exponential backoff, merged into any
+ * update for the same Build submitted in the meantime, since the run is not
+ * polled any more once it completed and its final phase would otherwise never
+ * be written.
+ */
+public class BuildStatusWriteQueue {
+    private static final Logger logger = Logger.getLogger(BuildStatusWriteQueue.class.getName());
+
+    private static final BuildStatusWriteQueue INSTANCE = new BuildStatusWriteQueue();
+
+    private static final long BASE_RETRY_DELAY_MS = 1000;
+    private static final long MAX_RETRY_DELAY_MS = 60000;
+    private static final int MAX_RETRIES = 5;
+
+    private final ConcurrentHashMap<String, BuildStatusUpdate> pending = new ConcurrentHashMap<>();
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+    private final ConcurrentHashMap<String, LastWrittenBuildStatus> lastWritten = new ConcurrentHashMap<>();
+    // failed updates waiting for their retry, and the failures of each Build
+    // since its last successful write
+    private final ConcurrentHashMap<String, BuildStatusUpdate> retrying = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Integer> failures = new ConcurrentHashMap<>();
+    private final AtomicBoolean started = new AtomicBoolean(false);
+    private volatile NamespaceFairExecutor writers;
+
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong retried = new AtomicLong();
+    private final AtomicLong skipped = new AtomicLong();
+    private final AtomicLong rateLimited = new AtomicLong();
+    private final AtomicLong totalFlushLatency = new AtomicLong();
+    private final AtomicLong maxFlushLatency = new AtomicLong();
+    private volatile long lastFlushLatency;
+
+    BuildStatusWriteQueue() {
+    }
+
+    public static BuildStatusWriteQueue get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Queues the given update, merging it with any update still pending for the
+     * same Build.
+     *
+     * @param update the status change to write
+     */
+    public void submit(BuildStatusUpdate update) {
+        submitted.incrementAndGet();
+        BuildStatusUpdate failedUpdate = retrying.remove(update.getKey());
+        if (failedUpdate != null) {
+            // the retry goes out with this update
+            update = update.mergeWith(failedUpdate);
+        }
+        pending.merge(update.getKey(), update, (older, newer) -> {
+            coalesced.incrementAndGet();
+            return newer.mergeWith(older);
+        });
+        checkStarted();
+    }
+
+    private void checkStarted() {
+        if (started.compareAndSet(false, true)) {
+            GlobalPluginConfiguration config = GlobalPluginConfiguration.get();
+            int threads = Math.max(1, config.getBuildStatusWriterThreads());
+            long interval = Math.max(10, config.getBuildStatusFlushInterval());
+            writers = new NamespaceFairExecutor(threads, config.getNamespaceWorkerLimit(), "OpenShift Build status writer");
+            Timer.get().scheduleWithFixedDelay(new SafeTimerTask() {
+                @Override
+                protected void doRun() throws Exception {
+                    flush();
+                }
+            }, interval, interval, TimeUnit.MILLISECONDS);
+            logger.info("Started OpenShift Build status write queue with " + threads + " writers flushing every "
+                    + interval + "ms");
+        }
+    }
+
+    void flush() {
+        int dispatched = 0;
+        for (String key : pending.keySet()) {
+            // a previous write for this build is still running, leave the
+            // update pending so that writes for a build stay ordered
+            if (!inFlight.add(key)) {
+                continue;
+            }
+            final BuildStatusUpdate update = pending.remove(key);
+            if (update == null) {
+                inFlight.remove(key);
+                continue;
+            }
+            try {
+                writers.submit(update.getNamespace(), key, () -> {
+                    try {
+                        write(update);
+                    } finally {
+                        inFlight.remove(key);
+                    }
+                });
+                dispatched++;
+            } catch (RejectedExecutionException e) {
+                inFlight.remove(key);
+                requeue(update);
+            }
+        }
+        if (dispatched > 0 && logger.isLoggable(FINE)) {
+            logger.fine("Flushed " + dispatched + " build status updates; " + getStatistics());
+        }
+    }
+
+    private void requeue(BuildStatusUpdate update) {
+        pending.merge(update.getKey(), update, (newer, older) -> newer.mergeWith(older));
+    }
+
+    protected void write(BuildStatusUpdate update) {
+        String ns = update.getNamespace();
+        String name = update.getName();
+        String key = update.getKey();
+        LastWrittenBuildStatus last = lastWritten.get(key);
+        BuildStatusUpdate changes = LastWrittenBuildStatus.diff(last, update);
+        if (changes == null) {
+            skipped.incrementAndGet();
+            logger.finest("Status of build " + ns + "/" + name + " unchanged, skipping write");
+            update.written(null);
+            return;
+        }
+        try {
+            String patch = LastWrittenBuildStatus.toMergePatch(changes);
+            if (logger.isLoggable(FINE)) {
+                logger.fine("Patching build " + ns + "/" + name + " with " + changes);
+            }
+            Build patched = ApiRateLimiter.withPriority(priorityOf(changes), () -> getAuthenticatedOpenShiftClient()
+                    .builds().inNamespace(ns).withName(name).patch(PatchContext.of(PatchType.JSON_MERGE), patch));
+            written.incrementAndGet();
+            failures.remove(key);
+            LastWrittenBuildStatus current = LastWrittenBuildStatus.apply(last, changes);
+            if (current.isTerminal()) {
+                // nothing should be written once the build is over, don't keep
+                // its state around
+                lastWritten.remove(key);
+            } else {
+                lastWritten.put(key, current);
+            }
+            update.written(patched != null && patched.getMetadata() != null
+                    ? patched.getMetadata().getResourceVersion()
+                    : null);
+        } catch (KubernetesClientException e) {
+            lastWritten.remove(key);
+            if (ApiRateLimiter.isRateLimited(e)) {
+                // nothing was sent, try again on a later flush
+                rateLimited.incrementAndGet();
+                requeue(update);
+                return;
+            }
+            if (e.getCode() == HTTP_NOT_FOUND) {
+                logger.fine("Build " + ns + "/" + name + " no longer exists, dropping status update");
+                failures.remove(key);
+                update.notFound();
+            } else {
+                failed.incrementAndGet();
+                retry(update, e);
+            }
+        } catch (JsonProcessingException | RuntimeException e) {
+            // we do not know what made it to the Build, next write sends
+            // everything
+            lastWritten.remove(key);
+            failed.incrementAndGet();
+            retry(update, e);
+        }
+        recordLatency(System.currentTimeMillis() - update.getEnqueuedAt());
+    }
+
+    private void retry(BuildStatusUpdate update, Exception cause) {
+        String key = update.getKey();
+        String build = update.getNamespace() + "/" + update.getName();
+        int attempt = failures.merge(key, 1, Integer::sum);
+        if (attempt > MAX_RETRIES) {
+            failures.remove(key);
+            logger.log(WARNING, "Giving up writing status of build " + build + " after " + MAX_RETRIES + " retries",
+                    cause);
+            return;
+        }
+        long delay = Math.min(MAX_RETRY_DELAY_MS, BASE_RETRY_DELAY_MS << (attempt - 1));
+        logger.log(WARNING, "Failed to write status of build " + build + ", retrying in " + delay + "ms", cause);
+        retried.incrementAndGet();
+        retrying.put(key, update);
+        try {
+            Timer.get().schedule(() -> {
+                // unless a newer update already took it along
+                if (retrying.remove(key, update)) {
+                    requeue(update);
+                }
+            }, delay, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            retrying.remove(key, update);
+            failures.remove(key);
+            logger.log(FINE, "Cannot schedule retry of build " + build, e);
+        }
+    }
+
+    /**
+     * Cancellations go first, then other phase changes, then plain status
+     * refreshes.
+     */
+    private static Priority priorityOf(BuildStatusUpdate changes) {
+        if (CANCELLED.equals(changes.getPhase())) {
+            return Priority.TRIGGER;
+        }
+        return changes.getPhase() != null ? Priority.PHASE : Priority.STATUS;
+    }
+
+    /**
+     * Forgets what was last written to the given Build and drops a failed write
+     * waiting to be retried, e.g. because the Build or its run was deleted.
+     *
+     * @param key the Build UID
+     */
+    public void forget(String key) {
+        if (key != null) {
+            lastWritten.remove(key);
+            retrying.remove(key);
+            failures.remove(key);
+        }
+    }
+
+    private void recordLatency(long latency) {
+        lastFlushLatency = latency;
+        totalFlushLatency.addAndGet(latency);
+        maxFlushLatency.accumulateAndGet(latency, Math::max);
+    }
+
+    /**
+     * @return the number of Builds with a status update waiting to be written
+     */
+    public int getQueueDepth() {
+        return pending.size();
+    }
+
+    public int getInFlightCount() {
+        return inFlight.size();
+    }
+
+    public long getSubmittedCount() {
+        return submitted.get();
+    }
+
+    /**
+     * @return the number of updates merged into an update which was still
+     *         pending, i.e. writes saved by coalescing
+     */
+    public long getCoalescedCount() {
+        return coalesced.get();
+    }
+
+    public long getWrittenCount() {
+        return written.get();
+    }
+
+    public long getFailedCount() {
+        return failed.get();
+    }
+
+    /**
+     * @return the number of failed writes scheduled to be tried again
+     */
+    public long getRetriedCount() {
+        return retried.get();
+    }
+
+    /**
+     * @return the number of flushed updates which did not change anything and
+     *         were therefore not written
+     */
+    public long getSkippedCount() {
+        return skipped.get();
+    }
+
+    /**
+     * @return the number of writes rejected by the {@link ApiRateLimiter} and
+     *         put back in the queue
+     */
+    public long getRateLimitedCount() {
+        return rateLimited.get();
+    }
+
+    /**
+     * @return time in milliseconds between the oldest merged update being queued
+     *         and its write completing, for the last write
+     */
+    public long getLastFlushLatencyMillis() {
+        return lastFlushLatency;
+    }
+
+    public long getMaxFlushLatencyMillis() {
+        return maxFlushLatency.get();
+    }
+
+    public long getAverageFlushLatencyMillis() {
+        long count = written.get() + failed.get();
+        return count == 0 ? 0 : totalFlushLatency.get() / count;
+    }
+
+    /**
+     * @return for each namespace with writes waiting for a writer, how long in
+     *         milliseconds the oldest one has been waiting
+     */
+    public Map<String, Long> getLagByNamespace() {
+        NamespaceFairExecutor w = writers;
+        return w != null ? w.getLagByNamespace() : Collections.<String, Long>emptyMap();
+    }
+
+    public String getStatistics() {
+        return "depth=" + getQueueDepth() + " inFlight=" + getInFlightCount() + " submitted=" + getSubmittedCount()
+                + " coalesced=" + getCoalescedCount() + " written=" + getWrittenCount() + " skipped=" + getSkippedCount() + " failed="
+                + getFailedCount() + " retried=" + getRetriedCount() + " rateLimited=" + getRateLimitedCount() + " latencyMs(last/avg/max)=" + getLastFlushLatencyMillis() + "/"
+                + getAverageFlushLatencyMillis() + "/" + getMaxFlushLatencyMillis() + " lagMsByNamespace="
+                + getLagByNamespace();
+    }
+
+    // visible for tests
+    Map<String, BuildStatusUpdate> getPending() {
+        return pending;
+    }
+}
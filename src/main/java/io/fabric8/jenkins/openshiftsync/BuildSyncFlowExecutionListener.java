@@ -0,0 +1,49 @@
+/**
+ * Copyright (C) 2016 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.fabric8.jenkins.openshiftsync;
+
+import java.io.IOException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.jenkinsci.plugins.workflow.flow.FlowExecution;
+import org.jenkinsci.plugins.workflow.flow.FlowExecutionListener;
+import org.jenkinsci.plugins.workflow.job.WorkflowRun;
+
+import hudson.Extension;
+import hudson.model.Queue;
+
+/**
+ * Hands pipelines resumed after a Jenkins restart over to
+ * {@link BuildSyncRunListener}, which otherwise only starts polling a run when
+ * it starts.
+ */
+@Extension
+public class BuildSyncFlowExecutionListener extends FlowExecutionListener {
+    private static final Logger logger = Logger.getLogger(BuildSyncFlowExecutionListener.class.getName());
+
+    @Override
+    public void onResumed(FlowExecution execution) {
+        try {
+            Queue.Executable executable = execution.getOwner().getExecutable();
+            if (executable instanceof WorkflowRun) {
+                BuildSyncRunListener.get().onResumed((WorkflowRun) executable);
+            }
+        } catch (IOException | IllegalStateException e) {
+            logger.log(Level.FINE, "onResumed", e);
+        }
+    }
+}
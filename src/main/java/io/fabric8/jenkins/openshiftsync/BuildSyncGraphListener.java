@@ -0,0 +1,55 @@
+/**
+ * Copyright (C) 2016 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.fabric8.jenkins.openshiftsync;
+
+import java.io.IOException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.jenkinsci.plugins.workflow.flow.FlowExecution;
+import org.jenkinsci.plugins.workflow.flow.GraphListener;
+import org.jenkinsci.plugins.workflow.graph.FlowNode;
+import org.jenkinsci.plugins.workflow.job.WorkflowRun;
+
+import hudson.Extension;
+import hudson.model.Queue;
+
+/**
+ * Listens to pipeline graph changes (stage and step start/end, input steps
+ * pausing or resuming the run) and marks the owning {@link WorkflowRun} as
+ * dirty so that {@link BuildSyncRunListener} pushes its status to the
+ * OpenShift Build without waiting for the next poll.
+ */
+@Extension
+public class BuildSyncGraphListener implements GraphListener {
+    private static final Logger logger = Logger.getLogger(BuildSyncGraphListener.class.getName());
+
+    @Override
+    public void onNewHead(FlowNode node) {
+        FlowExecution execution = node.getExecution();
+        if (execution == null) {
+            return;
+        }
+        try {
+            Queue.Executable executable = execution.getOwner().getExecutable();
+            if (executable instanceof WorkflowRun) {
+                BuildSyncRunListener.get().markDirty((WorkflowRun) executable);
+            }
+        } catch (IOException | IllegalStateException e) {
+            logger.log(Level.FINE, "onNewHead", e);
+        }
+    }
+}
@@ -32,22 +32,26 @@ import static io.fabric8.jenkins.openshiftsync.Constants.OPENSHIFT_ANNOTATIONS_J
 import static io.fabric8.jenkins.openshiftsync.Constants.OPENSHIFT_ANNOTATIONS_JENKINS_NAMESPACE;
 import static io.fabric8.jenkins.openshiftsync.Constants.OPENSHIFT_ANNOTATIONS_JENKINS_PENDING_INPUT_ACTION_JSON;
 import static io.fabric8.jenkins.openshiftsync.Constants.OPENSHIFT_ANNOTATIONS_JENKINS_STATUS_JSON;
+import static io.fabric8.jenkins.openshiftsync.Constants.OPENSHIFT_ANNOTATIONS_JENKINS_STATUS_JSON_ENCODING;
 import static io.fabric8.jenkins.openshiftsync.JenkinsUtils.maybeScheduleNext;
 import static io.fabric8.jenkins.openshiftsync.OpenShiftUtils.formatTimestamp;
 import static io.fabric8.jenkins.openshiftsync.OpenShiftUtils.getAuthenticatedOpenShiftClient;
-import static java.net.HttpURLConnection.HTTP_NOT_FOUND;
 
 import java.io.IOException;
-import java.lang.reflect.Constructor;
-import java.lang.reflect.Method;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.annotation.Nonnull;
 
@@ -60,16 +64,15 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.cloudbees.workflow.rest.external.AtomFlowNodeExt;
-import com.cloudbees.workflow.rest.external.FlowNodeExt;
 import com.cloudbees.workflow.rest.external.PendingInputActionsExt;
 import com.cloudbees.workflow.rest.external.RunExt;
 import com.cloudbees.workflow.rest.external.StageNodeExt;
 import com.cloudbees.workflow.rest.external.StatusExt;
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 
 import hudson.Extension;
-import hudson.PluginManager;
+import hudson.ExtensionList;
+import hudson.Util;
 import hudson.model.Result;
 import hudson.model.Run;
 import hudson.model.TaskListener;
@@ -77,11 +80,6 @@ import hudson.model.listeners.RunListener;
 import hudson.triggers.SafeTimerTask;
 import io.fabric8.kubernetes.client.KubernetesClientException;
 import io.fabric8.openshift.api.model.Build;
-import io.fabric8.openshift.api.model.BuildBuilder;
-import io.jenkins.blueocean.rest.factory.BlueRunFactory;
-import io.jenkins.blueocean.rest.model.BluePipelineNode;
-import io.jenkins.blueocean.rest.model.BlueRun;
-import io.jenkins.blueocean.rest.model.BlueRun.BlueRunResult;
 import jenkins.model.Jenkins;
 import jenkins.util.Timer;
 
@@ -98,15 +96,56 @@ public class BuildSyncRunListener extends RunListener<Run> {
 
     private long pollPeriodMs = 1000 * 5; // 5 seconds
     private long delayPollPeriodMs = 1000; // 1 seconds
+    // resolution of the poll scheduler and the number of slots of its wheel
+    private static final long pollTickMs = 1000;
+    private static final int pollWheelSize = 512;
     private static final long maxDelay = 30000;
+    // graph events tend to arrive in bursts (a stage start is followed by its
+    // first step), so wait a little before pushing the accumulated changes
+    private static final long eventFlushDelayMs = 250;
+    // how often the status checkpoint of a running build is saved to disk
+    private static final long checkpointSaveIntervalMs = 60000;
 
-    private transient ConcurrentLinkedQueue<Run> runsToPoll = new ConcurrentLinkedQueue<>();
+    // running builds by externalizable id, each polled at its own interval
+    private transient RunPollScheduler<Run> runsToPoll = new RunPollScheduler<>(pollTickMs, pollWheelSize,
+            System.currentTimeMillis());
+
+    // runs which have seen a pipeline graph change since they were last pushed
+    private transient Set<Run> dirtyRuns = ConcurrentHashMap.newKeySet();
+
+    // status computed for each polled run, keyed by externalizable id
+    private transient ConcurrentHashMap<String, RunStatusModel> statusModels = new ConcurrentHashMap<>();
+
+    // links annotated on the Build of each polled run, keyed by externalizable
+    // id
+    private transient ConcurrentHashMap<String, RunLinks> runLinks = new ConcurrentHashMap<>();
+
+    // computes and pushes run status, round-robin across namespaces
+    private transient volatile NamespaceFairExecutor statusWorkers;
+
+    // when the status checkpoint of each running build was last saved, keyed
+    // by externalizable id
+    private transient ConcurrentHashMap<String, Long> lastCheckpointSaves = new ConcurrentHashMap<>();
+
+    // runs whose status was pushed since Jenkins started, by externalizable
+    // id; only the first push of a run can be skipped on its checkpoint
+    private transient Set<String> pushedSinceStart = ConcurrentHashMap.newKeySet();
+
+    // the earliest time the next resumed run may be polled, so that runs
+    // resumed after a restart are not all polled at once
+    private transient AtomicLong nextResumeAt = new AtomicLong();
 
     private transient AtomicBoolean timerStarted = new AtomicBoolean(false);
 
+    private transient AtomicBoolean flushScheduled = new AtomicBoolean(false);
+
     public BuildSyncRunListener() {
     }
 
+    public static BuildSyncRunListener get() {
+        return ExtensionList.lookupSingleton(BuildSyncRunListener.class);
+    }
+
     @DataBoundConstructor
     public BuildSyncRunListener(long pollPeriodMs) {
         this.pollPeriodMs = pollPeriodMs;
@@ -135,13 +174,26 @@ public class BuildSyncRunListener extends RunListener<Run> {
         return joined.replaceAll("/+", "/").replaceAll("/\\?", "?").replaceAll("/#", "#").replaceAll(":/", "://");
     }
 
+    @Override
+    public void onInitialize(Run run) {
+        // index the run as soon as it exists so that the Build is not
+        // triggered again in the meantime
+        if (run instanceof WorkflowRun) {
+            BuildUidIndex.add((WorkflowRun) run);
+        }
+        super.onInitialize(run);
+    }
+
     @Override
     public void onStarted(Run run, TaskListener listener) {
         logger.info("Run started: " + run.getFullDisplayName());
+        if (run instanceof WorkflowRun) {
+            BuildUidIndex.add((WorkflowRun) run);
+        }
         if (shouldPollRun(run)) {
             logger.info("Processing run: " + run.getDisplayName());
+            BuildCause cause = (BuildCause) run.getCause(BuildCause.class);
             try {
-                BuildCause cause = (BuildCause) run.getCause(BuildCause.class);
                 logger.info("Build cause for the run is: " + cause);
                 if (cause != null) {
                     // TODO This should be a link to the OpenShift console.
@@ -150,9 +202,12 @@ public class BuildSyncRunListener extends RunListener<Run> {
             } catch (IOException e) {
                 logger.warn("Cannot set build description: " + e);
             }
-            if (runsToPoll.add(run)) {
-                logger.info("starting polling build " + run.getUrl());
+            if (cause != null) {
+                // none of the links change while the run exists
+                runLinks.put(run.getExternalizableId(), RunLinks.create(run, getRootUrl(cause)));
             }
+            runsToPoll.schedule(run.getExternalizableId(), run, getMinPollInterval(), System.currentTimeMillis());
+            logger.info("starting polling build " + run.getUrl());
             checkTimerStarted();
         } else {
             logger.info("Not polling polling build " + run.getUrl() + " as its not a WorkflowJob");
@@ -168,14 +223,151 @@ public class BuildSyncRunListener extends RunListener<Run> {
                     pollLoop();
                 }
             };
-            Timer.get().scheduleAtFixedRate(task, delayPollPeriodMs, pollPeriodMs, TimeUnit.MILLISECONDS);
+            Timer.get().scheduleAtFixedRate(task, delayPollPeriodMs, pollTickMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private NamespaceFairExecutor getStatusWorkers() {
+        NamespaceFairExecutor workers = statusWorkers;
+        if (workers == null) {
+            synchronized (this) {
+                workers = statusWorkers;
+                if (workers == null) {
+                    GlobalPluginConfiguration config = GlobalPluginConfiguration.get();
+                    int threads = Math.max(1, config.getStatusWorkerThreads());
+                    workers = new NamespaceFairExecutor(threads, config.getNamespaceWorkerLimit(),
+                            "OpenShift run status worker");
+                    statusWorkers = workers;
+                    logger.info("Started {} OpenShift run status workers", threads);
+                }
+            }
+        }
+        return workers;
+    }
+
+    /**
+     * Queues status work for the given run on the worker pool.
+     *
+     * @return false if work for the run was already queued
+     */
+    private boolean submitStatusWork(Run run, Runnable work) {
+        BuildCause cause = (BuildCause) run.getCause(BuildCause.class);
+        String namespace = cause != null ? cause.getNamespace() : "";
+        return getStatusWorkers().submit(namespace, run.getExternalizableId(), work);
+    }
+
+    /**
+     * @return for each namespace with queued status work, how long in
+     *         milliseconds its oldest run has been waiting for a worker
+     */
+    public Map<String, Long> getStatusLagByNamespace() {
+        NamespaceFairExecutor workers = statusWorkers;
+        return workers != null ? workers.getLagByNamespace() : Collections.<String, Long>emptyMap();
+    }
+
+    /**
+     * @return the interval in milliseconds a progressing run is polled at
+     */
+    private long getMinPollInterval() {
+        GlobalPluginConfiguration config = GlobalPluginConfiguration.get();
+        long interval = config.getStatusPollMinInterval() > 0
+                ? TimeUnit.SECONDS.toMillis(config.getStatusPollMinInterval())
+                : pollPeriodMs;
+        if (isEventDriven()) {
+            // graph events drive the updates, polling is only a safety net for
+            // anything the events did not catch
+            interval = Math.max(interval, TimeUnit.SECONDS.toMillis(config.getStatusSyncSafetyNetInterval()));
+        }
+        return interval;
+    }
+
+    /**
+     * @return the interval in milliseconds idle and paused runs back off to
+     */
+    private long getMaxPollInterval() {
+        return Math.max(getMinPollInterval(),
+                TimeUnit.SECONDS.toMillis(GlobalPluginConfiguration.get().getStatusPollMaxInterval()));
+    }
+
+    private boolean isEventDriven() {
+        GlobalPluginConfiguration config = GlobalPluginConfiguration.get();
+        return config != null && config.isEventDrivenStatusSync() && config.getStatusSyncSafetyNetInterval() > 0;
+    }
+
+    /**
+     * Marks the given run as changed so that its status gets recomputed and
+     * pushed to OpenShift shortly, instead of waiting for the next poll.
+     *
+     * @param run the run whose pipeline graph changed
+     */
+    public void markDirty(Run run) {
+        if (!isEventDriven() || !shouldPollRun(run)) {
+            return;
+        }
+        dirtyRuns.add(run);
+        // the run is progressing again, stop backing off
+        long minInterval = getMinPollInterval();
+        if (runsToPoll.getInterval(run.getExternalizableId()) > minInterval) {
+            runsToPoll.reschedule(run.getExternalizableId(), minInterval, System.currentTimeMillis());
+        }
+        if (flushScheduled.compareAndSet(false, true)) {
+            Runnable task = new SafeTimerTask() {
+                @Override
+                protected void doRun() throws Exception {
+                    flushDirtyRuns();
+                }
+            };
+            Timer.get().schedule(task, eventFlushDelayMs, TimeUnit.MILLISECONDS);
         }
     }
 
+    protected void flushDirtyRuns() {
+        // clear the flag first so that events arriving while we push
+        // schedule another flush
+        flushScheduled.set(false);
+        Iterator<Run> iter = dirtyRuns.iterator();
+        while (iter.hasNext()) {
+            Run run = iter.next();
+            iter.remove();
+            // completed runs are pushed by onCompleted/onFinalized
+            if (run.isBuilding()) {
+                submitStatusWork(run, () -> {
+                    try {
+                        pollRun(run);
+                    } catch (RuntimeException e) {
+                        logger.warn("Failed to push status of run " + run.getUrl(), e);
+                    }
+                });
+            }
+        }
+    }
+
+    /**
+     * Starts polling a run whose pipeline was resumed after a restart. Runs do
+     * not go through {@link #onStarted(Run, TaskListener)} again, and pushing
+     * all of them at once would flood the API server, so their first polls are
+     * spread out by the configured resume stagger interval. Runs whose Build
+     * still holds the status of the last push are not pushed again.
+     *
+     * @param run the resumed run
+     */
+    public void onResumed(Run run) {
+        if (!shouldPollRun(run)) {
+            return;
+        }
+        long stagger = Math.max(0, GlobalPluginConfiguration.get().getResumeStaggerInterval());
+        long now = System.currentTimeMillis();
+        long slot = nextResumeAt.accumulateAndGet(now, (prev, time) -> Math.max(prev, time) + stagger) - stagger;
+        runsToPoll.schedule(run.getExternalizableId(), run, slot - now + pollTickMs, now);
+        logger.info("resumed polling build " + run.getUrl());
+        checkTimerStarted();
+    }
+
     @Override
     public void onCompleted(Run run, @Nonnull TaskListener listener) {
         if (shouldPollRun(run)) {
-            runsToPoll.remove(run);
+            runsToPoll.remove(run.getExternalizableId());
+            dirtyRuns.remove(run);
             pollRun(run);
             logger.info("onCompleted " + run.getUrl());
             maybeScheduleNext(((WorkflowRun) run).getParent());
@@ -185,9 +377,22 @@ public class BuildSyncRunListener extends RunListener<Run> {
 
     @Override
     public void onDeleted(Run run) {
+        if (run instanceof WorkflowRun) {
+            BuildUidIndex.remove((WorkflowRun) run);
+        }
         if (shouldPollRun(run)) {
-            runsToPoll.remove(run);
+            runsToPoll.remove(run.getExternalizableId());
+            dirtyRuns.remove(run);
             pollRun(run);
+            statusModels.remove(run.getExternalizableId());
+            runLinks.remove(run.getExternalizableId());
+            lastCheckpointSaves.remove(run.getExternalizableId());
+            pushedSinceStart.remove(run.getExternalizableId());
+            PersistenceService.get().forget(run);
+            BuildCause cause = (BuildCause) run.getCause(BuildCause.class);
+            if (cause != null) {
+                BuildStatusWriteQueue.get().forget(cause.getUid());
+            }
             logger.info("onDeleted " + run.getUrl());
             maybeScheduleNext(((WorkflowRun) run).getParent());
         }
@@ -197,8 +402,13 @@ public class BuildSyncRunListener extends RunListener<Run> {
     @Override
     public void onFinalized(Run run) {
         if (shouldPollRun(run)) {
-            runsToPoll.remove(run);
+            runsToPoll.remove(run.getExternalizableId());
+            dirtyRuns.remove(run);
             pollRun(run);
+            statusModels.remove(run.getExternalizableId());
+            runLinks.remove(run.getExternalizableId());
+            lastCheckpointSaves.remove(run.getExternalizableId());
+            pushedSinceStart.remove(run.getExternalizableId());
             String jenkinsURL = Jenkins.get().getRootUrl();
             logger.info("Run COMPLETED: Build details can be accessed at: " + jenkinsURL + run.getUrl());
         }
@@ -206,46 +416,85 @@ public class BuildSyncRunListener extends RunListener<Run> {
     }
 
     protected void pollLoop() {
-        Iterator<Run> iter = runsToPoll.iterator();
-        while (iter.hasNext()) {
-            pollRun(iter.next());
+        long now = System.currentTimeMillis();
+        for (Run run : runsToPoll.advance(now)) {
+            String id = run.getExternalizableId();
+            if (!submitStatusWork(run, () -> pollAndReschedule(run))) {
+                // the run is already queued because of a graph event, which
+                // pushes its status just the same
+                runsToPoll.reschedule(id, runsToPoll.getInterval(id), now);
+            }
+        }
+        if (logger.isDebugEnabled()) {
+            Map<String, Long> lags = getStatusLagByNamespace();
+            if (!lags.isEmpty()) {
+                logger.debug("Run status lag by namespace (ms): {}", lags);
+            }
         }
     }
 
-    protected void pollRun(Run run) {
+    private void pollAndReschedule(Run run) {
+        String id = run.getExternalizableId();
+        boolean progressed = false;
+        try {
+            progressed = pollRun(run);
+        } catch (RuntimeException e) {
+            logger.warn("Failed to poll run " + run.getUrl(), e);
+        }
+        // poll runs whose pipeline moves on often, back off exponentially on
+        // runs which are idle or waiting for input
+        long interval = progressed ? getMinPollInterval()
+                : Math.min(getMaxPollInterval(), Math.max(getMinPollInterval(), runsToPoll.getInterval(id) * 2));
+        runsToPoll.reschedule(id, interval, System.currentTimeMillis());
+    }
+
+    /**
+     * Recomputes the status of the given run and pushes it to its OpenShift
+     * Build if needed.
+     *
+     * @param run the run to poll
+     * @return true if the pipeline of the run progressed since it was last
+     *         polled
+     */
+    protected boolean pollRun(Run run) {
         if (!(run instanceof WorkflowRun)) {
             throw new IllegalStateException("Cannot poll a non-workflow run");
         }
 
-        RunExt wfRunExt = RunExt.create((WorkflowRun) run);
+        BuildCause cause = (BuildCause) run.getCause(BuildCause.class);
+        if (cause == null) {
+            return false;
+        }
 
-        // try blue run
-        BlueRun blueRun = null;
-        try {
-            blueRun = BlueRunFactory.getRun(run, null);
-        } catch (Throwable t) {
-            // use of info is intentional ... in case the blue ocean deps get
-            // bumped
-            // by another dependency vs. our bumping it explicitly, I want to
-            // find out quickly that we need to switch methods again
-            logger.warn("pollRun", t);
+        WorkflowRun wfRun = (WorkflowRun) run;
+        RunStatusModel model = statusModels.computeIfAbsent(run.getExternalizableId(), k -> new RunStatusModel());
+        long currTime = System.currentTimeMillis();
+        if (model.isUpToDate(wfRun) && currTime <= cause.getLastUpdateToOpenshift() + maxDelay) {
+            // nothing was appended to the flow graph since the status was last
+            // computed, so there is nothing new to push
+            return false;
         }
 
+        boolean progressed = !model.isUpToDate(wfRun);
+        String rootUrl = getRootUrl(cause);
+        RunExt wfRunExt = model.update(wfRun, rootUrl);
+
         try {
-            upsertBuild(run, wfRunExt, blueRun);
+            upsertBuild(run, cause, rootUrl, wfRunExt, model);
         } catch (KubernetesClientException e) {
             if (e.getCode() == HttpStatus.SC_UNPROCESSABLE_ENTITY) {
-                runsToPoll.remove(run);
+                runsToPoll.remove(run.getExternalizableId());
                 logger.warn("Cannot update status: {0}", e.getMessage());
-                return;
+                return progressed;
             }
             throw e;
         }
+        return progressed;
     }
 
     private boolean shouldUpdateOpenShiftBuild(BuildCause cause, int latestStageNum, int latestNumFlowNodes,
             StatusExt status) {
-        long currTime = TimeUnit.NANOSECONDS.toMillis(System.nanoTime());
+        long currTime = System.currentTimeMillis();
         logger.debug(String.format(
                 "shouldUpdateOpenShiftBuild curr time %s last update %s curr stage num %s last stage num %s"
                         + "curr flow num %s last flow num %s status %s",
@@ -276,116 +525,31 @@ public class BuildSyncRunListener extends RunListener<Run> {
         return false;
     }
 
-    private void upsertBuild(Run run, RunExt wfRunExt, BlueRun blueRun) {
-        if (run == null) {
-            return;
-        }
-
-        BuildCause cause = (BuildCause) run.getCause(BuildCause.class);
-        if (cause == null) {
-            return;
-        }
-
+    private String getRootUrl(BuildCause cause) {
         String namespace = OpenShiftUtils.getNamespacefromPodInputs();
-        String ns = cause.getNamespace();
         if (namespace == null)
-            namespace = ns;
-        String rootUrl = OpenShiftUtils.getJenkinsURL(getAuthenticatedOpenShiftClient(), namespace);
-        String buildUrl = joinPaths(rootUrl, run.getUrl());
-        String logsUrl = joinPaths(buildUrl, "/consoleText");
-        String logsConsoleUrl = joinPaths(buildUrl, "/console");
-        String logsBlueOceanUrl = null;
-        try {
-            // there are utility functions in the blueocean-dashboard plugin
-            // which construct
-            // the entire blueocean URI; however, attempting to pull that in as
-            // a maven dependency was untenable from an injected test
-            // perspective;
-            // so we are leveraging reflection;
-            Jenkins jenkins = Jenkins.getInstance();
-            // NOTE, the excessive null checking is to keep `mvn findbugs:gui`
-            // quiet
-            if (jenkins != null) {
-                PluginManager pluginMgr = jenkins.getPluginManager();
-                if (pluginMgr != null) {
-                    ClassLoader cl = pluginMgr.uberClassLoader;
-                    if (cl != null) {
-                        Class weburlbldr = cl
-                                .loadClass("org.jenkinsci.plugins.blueoceandisplayurl.BlueOceanDisplayURLImpl");
-                        Constructor ctor = weburlbldr.getConstructor();
-                        Object displayURL = ctor.newInstance();
-                        Method getRunURLMethod = weburlbldr.getMethod("getRunURL", hudson.model.Run.class);
-                        Object blueOceanURI = getRunURLMethod.invoke(displayURL, run);
-                        logsBlueOceanUrl = blueOceanURI.toString();
-                        logsBlueOceanUrl = logsBlueOceanUrl.replaceAll("http://unconfigured-jenkins-location/", "");
-                        if (logsBlueOceanUrl.startsWith("http://") || logsBlueOceanUrl.startsWith("https://"))
-                            // still normalize string
-                            logsBlueOceanUrl = joinPaths("", logsBlueOceanUrl);
-                        else
-                            logsBlueOceanUrl = joinPaths(rootUrl, logsBlueOceanUrl);
-                    }
-                }
-            }
-        } catch (Throwable t) {
-            logger.error("upsertBuild", t);
-        }
+            namespace = cause.getNamespace();
+        return OpenShiftUtils.getJenkinsURL(getAuthenticatedOpenShiftClient(), namespace);
+    }
 
-        Map<String, BlueRunResult> blueRunResults = new HashMap<String, BlueRunResult>();
-        if (blueRun != null && blueRun.getNodes() != null) {
-            Iterator<BluePipelineNode> iter = blueRun.getNodes().iterator();
-            while (iter.hasNext()) {
-                BluePipelineNode node = iter.next();
-                if (node != null) {
-                    blueRunResults.put(node.getDisplayName(), node.getResult());
-                }
-            }
+    private RunLinks getRunLinks(Run run, String rootUrl) {
+        RunLinks links = runLinks.get(run.getExternalizableId());
+        if (links == null || !links.isFor(rootUrl)) {
+            // the run started before this plugin was loaded or the Jenkins URL
+            // changed
+            links = RunLinks.create(run, rootUrl);
+            runLinks.put(run.getExternalizableId(), links);
         }
-        boolean pendingInput = false;
-        if (!wfRunExt.get_links().self.href.matches("^https?://.*$")) {
-            wfRunExt.get_links().self.setHref(joinPaths(rootUrl, wfRunExt.get_links().self.href));
-        }
-        int newNumStages = wfRunExt.getStages().size();
-        int newNumFlowNodes = 0;
-        List<StageNodeExt> validStageList = new ArrayList<StageNodeExt>();
-        for (StageNodeExt stage : wfRunExt.getStages()) {
-            // the StatusExt.getStatus() cannot be trusted for declarative
-            // pipeline;
-            // for example, skipped steps/stages will be marked as complete;
-            // we leverage the blue ocean state machine to determine this
-            BlueRunResult result = blueRunResults.get(stage.getName());
-            if (result != null && result == BlueRunResult.NOT_BUILT) {
-                logger.info("skipping stage " + stage.getName() + " for the status JSON for pipeline run "
-                        + run.getDisplayName()
-                        + " because it was not executed (most likely because of a failure in another stage)");
-                continue;
-            }
-            validStageList.add(stage);
+        return links;
+    }
 
-            FlowNodeExt.FlowNodeLinks links = stage.get_links();
-            if (!links.self.href.matches("^https?://.*$")) {
-                links.self.setHref(joinPaths(rootUrl, links.self.href));
-            }
-            if (links.getLog() != null && !links.getLog().href.matches("^https?://.*$")) {
-                links.getLog().setHref(joinPaths(rootUrl, links.getLog().href));
-            }
-            newNumFlowNodes = newNumFlowNodes + stage.getStageFlowNodes().size();
-            for (AtomFlowNodeExt node : stage.getStageFlowNodes()) {
-                FlowNodeExt.FlowNodeLinks nodeLinks = node.get_links();
-                if (!nodeLinks.self.href.matches("^https?://.*$")) {
-                    nodeLinks.self.setHref(joinPaths(rootUrl, nodeLinks.self.href));
-                }
-                if (nodeLinks.getLog() != null && !nodeLinks.getLog().href.matches("^https?://.*$")) {
-                    nodeLinks.getLog().setHref(joinPaths(rootUrl, nodeLinks.getLog().href));
-                }
-            }
+    private void upsertBuild(Run run, BuildCause cause, String rootUrl, RunExt wfRunExt, RunStatusModel model) {
+        String ns = cause.getNamespace();
+        RunLinks links = getRunLinks(run, rootUrl);
 
-            StatusExt status = stage.getStatus();
-            if (status != null && status.equals(StatusExt.PAUSED_PENDING_INPUT)) {
-                pendingInput = true;
-            }
-        }
-        // override stages in case declarative has fooled base pipeline support
-        wfRunExt.setStages(validStageList);
+        boolean pendingInput = model.isPendingInput();
+        int newNumStages = model.getNumStages();
+        int newNumFlowNodes = model.getNumFlowNodes();
 
         boolean needToUpdate = this.shouldUpdateOpenShiftBuild(cause, newNumStages, newNumFlowNodes,
                 wfRunExt.getStatus());
@@ -393,13 +557,17 @@ public class BuildSyncRunListener extends RunListener<Run> {
             return;
         }
 
-        String json;
+        StatusJsonEncoder.Encoded json;
         try {
-            json = new ObjectMapper().writeValueAsString(wfRunExt);
-        } catch (JsonProcessingException e) {
+            GlobalPluginConfiguration config = GlobalPluginConfiguration.get();
+            json = StatusJsonEncoder.encode(wfRunExt, config.getStatusJsonMaxBytes(), config.isCompressStatusJson());
+        } catch (IOException e) {
             logger.error("Failed to serialize workflow run. " + e, e);
             return;
         }
+        if (json.isTruncated()) {
+            logger.debug("Status JSON of run {} exceeded the size limit, flow nodes were dropped", run.getUrl());
+        }
 
         String pendingActions = null;
         if (pendingInput && run instanceof WorkflowRun) {
@@ -422,40 +590,117 @@ public class BuildSyncRunListener extends RunListener<Run> {
 
         String name = cause.getName();
         logger.debug("Patching build {0}/{1}: setting phase to {2}", new Object[] { ns, name, phase });
-        try {
 
-            Map<String, String> annotations = new HashMap<String, String>();
-            annotations.put(OPENSHIFT_ANNOTATIONS_JENKINS_STATUS_JSON, json);
-            annotations.put(OPENSHIFT_ANNOTATIONS_JENKINS_BUILD_URI, buildUrl);
-            annotations.put(OPENSHIFT_ANNOTATIONS_JENKINS_LOG_URL, logsUrl);
-            annotations.put(OPENSHIFT_ANNOTATIONS_JENKINS_CONSOLE_LOG_URL, logsConsoleUrl);
-            annotations.put(OPENSHIFT_ANNOTATIONS_JENKINS_BLUEOCEAN_LOG_URL, logsBlueOceanUrl);
-            String jenkinsNamespace = System.getenv(KUBERNETES_NAMESPACE);
-            if (jenkinsNamespace != null && !jenkinsNamespace.isEmpty()) {
-                annotations.put(OPENSHIFT_ANNOTATIONS_JENKINS_NAMESPACE, jenkinsNamespace);
-            }
-            if (pendingActions != null && !pendingActions.isEmpty()) {
-                annotations.put(OPENSHIFT_ANNOTATIONS_JENKINS_PENDING_INPUT_ACTION_JSON, pendingActions);
-            }
-            final String finalStartTime = startTime;
-            final String finalCompletionTime = completionTime;
-            logger.info("Setting build status values to: {}:[ {} ]: {}->{}", name, phase, startTime, completionTime);
-            logger.debug("Setting build annotations values to: {} ]", annotations);
-            getAuthenticatedOpenShiftClient().builds().inNamespace(ns).withName(name)
-                    .edit(b -> new BuildBuilder(b).editMetadata().withAnnotations(annotations).endMetadata()
-                            .editStatus().withPhase(phase).withStartTimestamp(finalStartTime)
-                            .withCompletionTimestamp(finalCompletionTime).endStatus().build());
-        } catch (KubernetesClientException e) {
-            if (HTTP_NOT_FOUND == e.getCode()) {
-                runsToPoll.remove(run);
-            } else {
-                throw e;
-            }
+        Map<String, String> annotations = new HashMap<String, String>();
+        Set<String> removedAnnotations = new HashSet<String>();
+        annotations.put(OPENSHIFT_ANNOTATIONS_JENKINS_STATUS_JSON, json.getValue());
+        if (json.getEncoding() != null) {
+            annotations.put(OPENSHIFT_ANNOTATIONS_JENKINS_STATUS_JSON_ENCODING, json.getEncoding());
+        } else {
+            removedAnnotations.add(OPENSHIFT_ANNOTATIONS_JENKINS_STATUS_JSON_ENCODING);
+        }
+        annotations.put(OPENSHIFT_ANNOTATIONS_JENKINS_BUILD_URI, links.getBuildUrl());
+        annotations.put(OPENSHIFT_ANNOTATIONS_JENKINS_LOG_URL, links.getLogsUrl());
+        annotations.put(OPENSHIFT_ANNOTATIONS_JENKINS_CONSOLE_LOG_URL, links.getConsoleUrl());
+        annotations.put(OPENSHIFT_ANNOTATIONS_JENKINS_BLUEOCEAN_LOG_URL, links.getBlueOceanUrl());
+        String jenkinsNamespace = System.getenv(KUBERNETES_NAMESPACE);
+        if (jenkinsNamespace != null && !jenkinsNamespace.isEmpty()) {
+            annotations.put(OPENSHIFT_ANNOTATIONS_JENKINS_NAMESPACE, jenkinsNamespace);
+        }
+        if (pendingActions != null && !pendingActions.isEmpty()) {
+            annotations.put(OPENSHIFT_ANNOTATIONS_JENKINS_PENDING_INPUT_ACTION_JSON, pendingActions);
+        } else {
+            // annotations are merged into the existing ones, so an answered
+            // input has to be removed explicitly
+            removedAnnotations.add(OPENSHIFT_ANNOTATIONS_JENKINS_PENDING_INPUT_ACTION_JSON);
         }
+        String statusHash = statusHash(wfRunExt, annotations, removedAnnotations, phase, startTime, completionTime);
+        if (pushedSinceStart.add(run.getExternalizableId()) && statusHash.equals(cause.getLastPushedStatusHash())
+                && !hasBuildChanged(ns, name, cause)) {
+            // typically a run resumed after a restart whose status is what it
+            // was when Jenkins went down
+            logger.debug("Status of build {}/{} is unchanged since the last push", ns, name);
+            cause.setNumFlowNodes(newNumFlowNodes);
+            cause.setNumStages(newNumStages);
+            cause.setLastUpdateToOpenshift(System.currentTimeMillis());
+            return;
+        }
+
+        logger.info("Setting build status values to: {}:[ {} ]: {}->{}", name, phase, startTime, completionTime);
+        logger.debug("Setting build annotations values to: {} ]", annotations);
+        String runId = run.getExternalizableId();
+        BuildStatusWriteQueue.get()
+                .submit(new BuildStatusUpdate(ns, name, cause.getUid(), annotations, removedAnnotations, phase,
+                        startTime, completionTime, () -> runsToPoll.remove(runId))
+                                .onWritten(resourceVersion -> checkpoint(run, cause, statusHash, resourceVersion)));
 
         cause.setNumFlowNodes(newNumFlowNodes);
         cause.setNumStages(newNumStages);
-        cause.setLastUpdateToOpenshift(TimeUnit.NANOSECONDS.toMillis(System.nanoTime()));
+        cause.setLastUpdateToOpenshift(System.currentTimeMillis());
+    }
+
+    /**
+     * Digest of what a status push writes, leaving out the durations of the
+     * status JSON: RunExt computes them from the current time for anything
+     * still running, so they differ on every computation.
+     */
+    static String statusHash(RunExt wfRunExt, Map<String, String> annotations, Set<String> removedAnnotations,
+            String phase, String startTime, String completionTime) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(wfRunExt.getStatus()).append(';');
+        if (wfRunExt.getStages() != null) {
+            for (StageNodeExt stage : wfRunExt.getStages()) {
+                sb.append(stage.getId()).append('=').append(stage.getStatus()).append('[');
+                if (stage.getStageFlowNodes() != null) {
+                    for (AtomFlowNodeExt node : stage.getStageFlowNodes()) {
+                        sb.append(node.getId()).append('=').append(node.getStatus()).append(',');
+                    }
+                }
+                sb.append("];");
+            }
+        }
+        Map<String, String> sorted = new TreeMap<>(annotations);
+        sorted.remove(OPENSHIFT_ANNOTATIONS_JENKINS_STATUS_JSON);
+        return Util.getDigestOf(sb.toString() + sorted + new TreeSet<>(removedAnnotations) + phase + startTime
+                + completionTime);
+    }
+
+    /**
+     * @return true unless the cached Build is still at the resourceVersion our
+     *         last push left it at
+     */
+    private boolean hasBuildChanged(String namespace, String name, BuildCause cause) {
+        if (!InformerLister.BUILDS.hasSynced(namespace)) {
+            return true;
+        }
+        Build build = InformerLister.BUILDS.get(namespace, name);
+        if (build == null || build.getMetadata() == null) {
+            return true;
+        }
+        String resourceVersion = build.getMetadata().getResourceVersion();
+        return resourceVersion == null || !resourceVersion.equals(cause.getLastPushedResourceVersion());
+    }
+
+    /**
+     * Records a push which made it to the Build in the cause of the run, and
+     * has the run persisted so that the checkpoint survives a restart. Saving a
+     * running build rewrites its whole build.xml, so it is done at most every
+     * {@link #checkpointSaveIntervalMs} per run.
+     */
+    private void checkpoint(Run run, BuildCause cause, String statusHash, String resourceVersion) {
+        cause.checkpoint(statusHash, resourceVersion);
+        String id = run.getExternalizableId();
+        long now = System.currentTimeMillis();
+        if (run.isBuilding()) {
+            Long lastSaved = lastCheckpointSaves.get(id);
+            if (lastSaved != null && now - lastSaved < checkpointSaveIntervalMs) {
+                return;
+            }
+            lastCheckpointSaves.put(id, now);
+        } else {
+            lastCheckpointSaves.remove(id);
+        }
+        PersistenceService.get().markDirty(run);
     }
 
     // annotate the Build with pending input JSON so consoles can do the
@@ -478,7 +723,7 @@ public class BuildSyncRunListener extends RunListener<Run> {
             }
         }
         try {
-            return new ObjectMapper().writeValueAsString(pendingInputActions);
+            return StatusJsonEncoder.toJson(pendingInputActions);
         } catch (JsonProcessingException e) {
             logger.error("Failed to serialize pending actions. " + e, e);
             return null;
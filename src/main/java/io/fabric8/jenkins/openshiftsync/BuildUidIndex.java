@@ -0,0 +1,220 @@
+/**
+ * Copyright (C) 2016 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.fabric8.jenkins.openshiftsync;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.IntFunction;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.jenkinsci.plugins.workflow.job.WorkflowJob;
+import org.jenkinsci.plugins.workflow.job.WorkflowRun;
+
+import hudson.Extension;
+import hudson.XmlFile;
+import hudson.model.Item;
+import hudson.model.Saveable;
+import hudson.model.listeners.ItemListener;
+import jenkins.model.Jenkins;
+
+/**
+ * Index from OpenShift Build UID to the number of the run of a job, so that
+ * finding the run of a Build does not load the build history of the job.
+ *
+ * The index of a job is kept in memory and in a file next to the job
+ * configuration. It is updated as runs start and are deleted; when the file is
+ * missing, e.g. after an upgrade, it is rebuilt from the build history once.
+ * Once loaded or rebuilt the index is authoritative: a Build missing from it
+ * has no run, and the build history is not looked at.
+ *
+ * A new run is written to the file right away, so that it cannot be lost in
+ * a crash and its Build triggered again. Other writes, e.g. of deleted runs,
+ * go through the {@link PersistenceService}; a stale entry is detected and
+ * dropped on lookup.
+ */
+public class BuildUidIndex implements Saveable {
+    private static final Logger logger = Logger.getLogger(BuildUidIndex.class.getName());
+
+    static final String FILE_NAME = "openshift-build-uids.xml";
+
+    // by job full name, dropped when the job is deleted or moved; visible for
+    // tests
+    static final Map<String, BuildUidIndex> INDEXES = Collections
+            .synchronizedMap(new HashMap<String, BuildUidIndex>());
+
+    private final WorkflowJob job;
+    // guarded by this
+    private final Map<String, Integer> runs;
+
+    // visible for tests
+    BuildUidIndex(WorkflowJob job, Map<String, Integer> runs) {
+        this.job = job;
+        this.runs = runs;
+    }
+
+    /**
+     * @param job      the job
+     * @param buildUid the UID of the OpenShift Build
+     * @return the run of the job for the given Build, or null if there is none
+     */
+    public static WorkflowRun getRun(WorkflowJob job, String buildUid) {
+        if (buildUid == null) {
+            return null;
+        }
+        return forJob(job).find(buildUid, job::getBuildByNumber);
+    }
+
+    // visible for tests
+    WorkflowRun find(String buildUid, IntFunction<WorkflowRun> runs) {
+        Integer number = lookup(buildUid);
+        if (number == null) {
+            // the index is authoritative, don't go through the history
+            return null;
+        }
+        WorkflowRun run = runs.apply(number);
+        BuildCause cause = run != null ? run.getCause(BuildCause.class) : null;
+        if (cause != null && buildUid.equals(cause.getUid())) {
+            return run;
+        }
+        // the run was deleted without us noticing
+        remove(buildUid);
+        return null;
+    }
+
+    /**
+     * Adds the given run to the index of its job if it was started for an
+     * OpenShift Build, and writes the index unless the run was already in it.
+     */
+    public static void add(WorkflowRun run) {
+        BuildCause cause = run.getCause(BuildCause.class);
+        if (cause != null && cause.getUid() != null) {
+            forJob(run.getParent()).putAndSave(cause.getUid(), run.getNumber());
+        }
+    }
+
+    /**
+     * Removes the given run from the index of its job.
+     */
+    public static void remove(WorkflowRun run) {
+        BuildCause cause = run.getCause(BuildCause.class);
+        if (cause != null && cause.getUid() != null) {
+            forJob(run.getParent()).remove(cause.getUid());
+        }
+    }
+
+    private static BuildUidIndex forJob(WorkflowJob job) {
+        synchronized (INDEXES) {
+            BuildUidIndex index = INDEXES.get(job.getFullName());
+            if (index == null || index.job != job) {
+                // new job, or the job was reloaded from disk
+                index = load(job);
+                INDEXES.put(job.getFullName(), index);
+            }
+            return index;
+        }
+    }
+
+    // visible for tests
+    static void invalidate(String fullName) {
+        synchronized (INDEXES) {
+            INDEXES.keySet().removeIf(name -> name.equals(fullName) || name.startsWith(fullName + "/"));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static BuildUidIndex load(WorkflowJob job) {
+        XmlFile file = getFile(job);
+        if (file.exists()) {
+            try {
+                return new BuildUidIndex(job, new HashMap<>((Map<String, Integer>) file.read()));
+            } catch (IOException | RuntimeException e) {
+                logger.log(Level.WARNING, "Cannot read " + file + ", rebuilding it", e);
+            }
+        }
+        Map<String, Integer> runs = new HashMap<>();
+        for (WorkflowRun run : job.getBuilds()) {
+            BuildCause cause = run.getCause(BuildCause.class);
+            if (cause != null && cause.getUid() != null) {
+                runs.put(cause.getUid(), run.getNumber());
+            }
+        }
+        logger.fine("Indexed " + runs.size() + " OpenShift builds of job " + job.getFullName());
+        BuildUidIndex index = new BuildUidIndex(job, runs);
+        PersistenceService.get().markDirty(index);
+        return index;
+    }
+
+    private static XmlFile getFile(WorkflowJob job) {
+        return new XmlFile(Jenkins.XSTREAM2, new File(job.getRootDir(), FILE_NAME));
+    }
+
+    private synchronized Integer lookup(String buildUid) {
+        return runs.get(buildUid);
+    }
+
+    private synchronized void putAndSave(String buildUid, int number) {
+        Integer previous = runs.put(buildUid, number);
+        if (previous == null || previous != number) {
+            // a pending deferred write is covered by this one
+            PersistenceService.get().forget(this);
+            save();
+        }
+    }
+
+    private synchronized void remove(String buildUid) {
+        if (runs.remove(buildUid) != null) {
+            PersistenceService.get().markDirty(this);
+        }
+    }
+
+    // the file is small, it is written while holding the lock so that writes
+    // cannot overtake each other
+    @Override
+    public synchronized void save() {
+        if (Jenkins.getActiveInstance().getItemByFullName(job.getFullName()) != job) {
+            // the job is gone, don't bring its directory back
+            return;
+        }
+        XmlFile file = getFile(job);
+        try {
+            file.write(new TreeMap<>(runs));
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Cannot save " + file, e);
+        }
+    }
+
+    /**
+     * Drops the indexes of deleted and moved jobs, including the jobs of
+     * deleted and moved folders.
+     */
+    @Extension
+    public static class Invalidator extends ItemListener {
+        @Override
+        public void onDeleted(Item item) {
+            invalidate(item.getFullName());
+        }
+
+        @Override
+        public void onLocationChanged(Item item, String oldFullName, String newFullName) {
+            invalidate(oldFullName);
+        }
+    }
+}
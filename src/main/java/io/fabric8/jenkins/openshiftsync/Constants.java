@@ -28,6 +28,9 @@ public class Constants {
     public static final String OPENSHIFT_ANNOTATIONS_JENKINS_PENDING_INPUT_ACTION_JSON = "openshift.io/jenkins-pending-input-actions-json";
 
     public static final String OPENSHIFT_ANNOTATIONS_JENKINS_STATUS_JSON = "openshift.io/jenkins-status-json";
+    // set when the status JSON annotation is not plain JSON
+    public static final String OPENSHIFT_ANNOTATIONS_JENKINS_STATUS_JSON_ENCODING = "openshift.io/jenkins-status-json-encoding";
+    public static final String STATUS_JSON_ENCODING_GZIP_BASE64 = "gzip+base64";
     public static final String OPENSHIFT_ANNOTATIONS_JENKINS_NAMESPACE = "openshift.io/jenkins-namespace";
     public static final String OPENSHIFT_LABELS_BUILD_CONFIG_NAME = "openshift.io/build-config.name";
     public static final String OPENSHIFT_LABELS_BUILD_CONFIG_GIT_REPOSITORY_NAME = "openshift.io/gitRepository";
@@ -239,7 +239,7 @@ public class CredentialsUtils {
                             }
                         }
                     }
-                    creentialsStore.save();
+                    PersistenceService.get().markDirty(creentialsStore);
                 } finally {
                     SecurityContextHolder.setContext(previousContext);
                 }
@@ -273,7 +273,7 @@ public class CredentialsUtils {
                     s.removeCredentials(Domain.global(), existingCred);
                     logger.info("Deleted credential " + id + " from Secret " + name + " with revision: "
                             + resourceRevision);
-                    s.save();
+                    PersistenceService.get().markDirty(s);
                 } else {
                     logger.warning(
                             "Stopped attempt to delete " + KUBERNETES_SERVICE_ACCOUNT + " credentials with Id " + id);
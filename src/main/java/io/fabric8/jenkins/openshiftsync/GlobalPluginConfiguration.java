@@ -74,6 +74,24 @@ public class GlobalPluginConfiguration extends GlobalConfiguration {
     private int secretListInterval = 300;
     private int configMapListInterval = 300;
     private int imageStreamListInterval = 300;
+    private boolean eventDrivenStatusSync = true;
+    private int statusSyncSafetyNetInterval = 30;
+    private int buildStatusFlushInterval = 500;
+    private int buildStatusWriterThreads = 4;
+    private int statusJsonMaxBytes = 131072;
+    private boolean compressStatusJson = false;
+    private int statusPollMinInterval = 5;
+    private int statusPollMaxInterval = 60;
+    private int statusWorkerThreads = 4;
+    private int resumeStaggerInterval = 200;
+    private int apiQps = 0;
+    private int apiBurst = 40;
+    private int eventWorkerThreads = 4;
+    private int reconcileThreads = 4;
+    private int reconcilePageSize = 500;
+    private int bootstrapThreads = 4;
+    private int saveCoalescingWindow = 1000;
+    private int namespaceWorkerLimit = 0;
 
     private static GlobalPluginConfigurationTimerTask TASK;
     private static ScheduledFuture<?> FUTURE;
@@ -125,6 +143,7 @@ public class GlobalPluginConfiguration extends GlobalConfiguration {
 
     private void start() {
         if (this.enabled) {
+            ApiRateLimiter.get().configure(this.apiQps, this.apiBurst);
             OpenShiftUtils.initializeOpenShiftClient(this.server, this.maxConnections);
             this.namespaces = getNamespaceOrUseDefault(this.namespaces, getOpenShiftClient());
             if (TASK != null) {
@@ -394,6 +413,150 @@ public class GlobalPluginConfiguration extends GlobalConfiguration {
         this.syncBuildConfigsAndBuilds = syncBuildConfigsAndBuilds;
     }
 
+    public boolean isEventDrivenStatusSync() {
+        return eventDrivenStatusSync;
+    }
+
+    public void setEventDrivenStatusSync(boolean eventDrivenStatusSync) {
+        this.eventDrivenStatusSync = eventDrivenStatusSync;
+    }
+
+    public int getStatusSyncSafetyNetInterval() {
+        return statusSyncSafetyNetInterval;
+    }
+
+    public void setStatusSyncSafetyNetInterval(int statusSyncSafetyNetInterval) {
+        this.statusSyncSafetyNetInterval = statusSyncSafetyNetInterval;
+    }
+
+    public int getBuildStatusFlushInterval() {
+        return buildStatusFlushInterval;
+    }
+
+    public void setBuildStatusFlushInterval(int buildStatusFlushInterval) {
+        this.buildStatusFlushInterval = buildStatusFlushInterval;
+    }
+
+    public int getBuildStatusWriterThreads() {
+        return buildStatusWriterThreads;
+    }
+
+    public void setBuildStatusWriterThreads(int buildStatusWriterThreads) {
+        this.buildStatusWriterThreads = buildStatusWriterThreads;
+    }
+
+    public int getStatusJsonMaxBytes() {
+        return statusJsonMaxBytes;
+    }
+
+    public void setStatusJsonMaxBytes(int statusJsonMaxBytes) {
+        this.statusJsonMaxBytes = statusJsonMaxBytes;
+    }
+
+    public boolean isCompressStatusJson() {
+        return compressStatusJson;
+    }
+
+    public void setCompressStatusJson(boolean compressStatusJson) {
+        this.compressStatusJson = compressStatusJson;
+    }
+
+    public int getStatusPollMinInterval() {
+        return statusPollMinInterval;
+    }
+
+    public void setStatusPollMinInterval(int statusPollMinInterval) {
+        this.statusPollMinInterval = statusPollMinInterval;
+    }
+
+    public int getStatusPollMaxInterval() {
+        return statusPollMaxInterval;
+    }
+
+    public void setStatusPollMaxInterval(int statusPollMaxInterval) {
+        this.statusPollMaxInterval = statusPollMaxInterval;
+    }
+
+    public int getStatusWorkerThreads() {
+        return statusWorkerThreads;
+    }
+
+    public void setStatusWorkerThreads(int statusWorkerThreads) {
+        this.statusWorkerThreads = statusWorkerThreads;
+    }
+
+    public int getResumeStaggerInterval() {
+        return resumeStaggerInterval;
+    }
+
+    public void setResumeStaggerInterval(int resumeStaggerInterval) {
+        this.resumeStaggerInterval = resumeStaggerInterval;
+    }
+
+    public int getApiQps() {
+        return apiQps;
+    }
+
+    public void setApiQps(int apiQps) {
+        this.apiQps = apiQps;
+    }
+
+    public int getApiBurst() {
+        return apiBurst;
+    }
+
+    public void setApiBurst(int apiBurst) {
+        this.apiBurst = apiBurst;
+    }
+
+    public int getEventWorkerThreads() {
+        return eventWorkerThreads;
+    }
+
+    public void setEventWorkerThreads(int eventWorkerThreads) {
+        this.eventWorkerThreads = eventWorkerThreads;
+    }
+
+    public int getReconcileThreads() {
+        return reconcileThreads;
+    }
+
+    public void setReconcileThreads(int reconcileThreads) {
+        this.reconcileThreads = reconcileThreads;
+    }
+
+    public int getReconcilePageSize() {
+        return reconcilePageSize;
+    }
+
+    public void setReconcilePageSize(int reconcilePageSize) {
+        this.reconcilePageSize = reconcilePageSize;
+    }
+
+    public int getBootstrapThreads() {
+        return bootstrapThreads;
+    }
+
+    public void setBootstrapThreads(int bootstrapThreads) {
+        this.bootstrapThreads = bootstrapThreads;
+    }
+
+    public int getSaveCoalescingWindow() {
+        return saveCoalescingWindow;
+    }
+
+    public void setSaveCoalescingWindow(int saveCoalescingWindow) {
+        this.saveCoalescingWindow = saveCoalescingWindow;
+    }
+
+    public int getNamespaceWorkerLimit() {
+        return namespaceWorkerLimit;
+    }
+
+    public void setNamespaceWorkerLimit(int namespaceWorkerLimit) {
+        this.namespaceWorkerLimit = namespaceWorkerLimit;
+    }
+
     public int getMaxConnections() {
         return maxConnections;
     }
@@ -37,6 +37,7 @@ public class GlobalPluginConfigurationTimerTask extends SafeTimerTask {
             startNamespaceInformers();
             logger.info("All the namespaced informers have been registered!! ... starting all registered informers");
         }
+        startJenkinsUrlInformers();
         getInformerFactory().startAllRegisteredInformers();
         logger.info("All registered informers have been started");
 
@@ -121,6 +122,15 @@ public class GlobalPluginConfigurationTimerTask extends SafeTimerTask {
         }
     }
 
+    private void startJenkinsUrlInformers() {
+        String namespace = OpenShiftUtils.getNamespacefromPodInputs();
+        if (namespace != null && GlobalPluginConfiguration.get().isSyncBuildConfigsAndBuilds()) {
+            JenkinsUrlResolver jenkinsUrlResolver = new JenkinsUrlResolver(namespace);
+            informers.add(jenkinsUrlResolver);
+            jenkinsUrlResolver.start();
+        }
+    }
+
     public void stop() {
         logger.info("Stopping all informers ...");
         synchronized (this) {
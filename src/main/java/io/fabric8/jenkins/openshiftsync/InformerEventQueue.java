@@ -0,0 +1,158 @@
+/**
+ * Copyright (C) 2016 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.fabric8.jenkins.openshiftsync;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.logging.Logger;
+
+import io.fabric8.kubernetes.api.model.OwnerReference;
+import io.fabric8.openshift.api.model.Build;
+import io.fabric8.openshift.api.model.BuildConfig;
+import jenkins.util.Timer;
+
+/**
+ * Hands the events of the Build and BuildConfig informers over to a
+ * {@link KeyedWorkQueue} keyed by BuildConfig UID, so that the informer
+ * dispatch threads never wait for Jenkins. Events of one BuildConfig and its
+ * Builds are processed in order, different BuildConfigs in parallel.
+ *
+ * Waiting events collapse as follows: an add or update of a BuildConfig
+ * replaces a waiting add or update of it; an update of a Build replaces a
+ * waiting update of the same Build. Adds and deletes of Builds never collapse
+ * since each of them has to be acted on.
+ */
+public class InformerEventQueue {
+    private static final Logger logger = Logger.getLogger(InformerEventQueue.class.getName());
+
+    private static final long BASE_RETRY_DELAY_MS = 1000;
+    private static final long MAX_RETRY_DELAY_MS = 60000;
+    private static final int MAX_RETRIES = 5;
+
+    private static volatile KeyedWorkQueue queue;
+
+    private InformerEventQueue() {
+    }
+
+    static KeyedWorkQueue get() {
+        KeyedWorkQueue q = queue;
+        if (q == null) {
+            synchronized (InformerEventQueue.class) {
+                q = queue;
+                if (q == null) {
+                    int threads = Math.max(1, GlobalPluginConfiguration.get().getEventWorkerThreads());
+                    q = new KeyedWorkQueue(threads, "OpenShift informer event worker", Timer.get(),
+                            BASE_RETRY_DELAY_MS, MAX_RETRY_DELAY_MS, MAX_RETRIES);
+                    queue = q;
+                    logger.info("Started " + threads + " OpenShift informer event workers");
+                }
+            }
+        }
+        return q;
+    }
+
+    public static void buildAdded(Build build) {
+        get().submit(keyOf(build), "add " + build.getMetadata().getUid(),
+                () -> BuildManager.addEventToJenkinsJobRun(build));
+    }
+
+    public static void buildModified(Build build) {
+        get().submit(keyOf(build), "update " + build.getMetadata().getUid(),
+                () -> BuildManager.modifyEventToJenkinsJobRun(build));
+    }
+
+    public static void buildDeleted(Build build) {
+        get().submit(keyOf(build), "delete " + build.getMetadata().getUid(),
+                () -> BuildManager.deleteEventToJenkinsJobRun(build));
+    }
+
+    /**
+     * @param buildConfig   the added BuildConfig
+     * @param flushNoBCList whether to trigger the Builds of the BuildConfig
+     *                      which arrived before it
+     */
+    public static void buildConfigAdded(BuildConfig buildConfig, boolean flushNoBCList) {
+        get().submit(keyOf(buildConfig), "upsert", () -> {
+            BuildConfigManager.upsertJob(buildConfig);
+            if (flushNoBCList) {
+                BuildManager.flushBuildsWithNoBCList(buildConfig.getMetadata().getNamespace(),
+                        buildConfig.getMetadata().getName());
+            }
+        });
+    }
+
+    /**
+     * @param buildConfig   the new state of the BuildConfig
+     * @param flushNoBCList whether to trigger the Builds of the BuildConfig
+     *                      which arrived before it
+     */
+    public static void buildConfigModified(BuildConfig buildConfig, boolean flushNoBCList) {
+        get().submit(keyOf(buildConfig), "upsert", () -> {
+            BuildConfigManager.modifyEventToJenkinsJob(buildConfig);
+            if (flushNoBCList) {
+                BuildManager.flushBuildsWithNoBCList(buildConfig.getMetadata().getNamespace(),
+                        buildConfig.getMetadata().getName());
+            }
+        });
+    }
+
+    /**
+     * Creates or updates the job of a BuildConfig of the initial list of an
+     * informer, in order with the events of the BuildConfig. The job is written
+     * from the BuildConfig as currently cached rather than from the given one,
+     * so that it is never older than an event processed before.
+     *
+     * @param buildConfig the BuildConfig as listed
+     * @return completed once the job was written, see
+     *         {@link KeyedWorkQueue#submit(String, String, KeyedWorkQueue.Work)}
+     */
+    public static CompletableFuture<Void> buildConfigBootstrapped(BuildConfig buildConfig) {
+        String namespace = buildConfig.getMetadata().getNamespace();
+        String name = buildConfig.getMetadata().getName();
+        String uid = buildConfig.getMetadata().getUid();
+        return get().submit(keyOf(buildConfig), "upsert", () -> {
+            BuildConfig current = uid != null ? InformerLister.BUILD_CONFIGS.getByUid(namespace, uid)
+                    : InformerLister.BUILD_CONFIGS.get(namespace, name);
+            if (current != null) {
+                BuildConfigManager.upsertJob(current);
+            }
+        });
+    }
+
+    public static void buildConfigDeleted(BuildConfig buildConfig) {
+        get().submit(keyOf(buildConfig), "delete", () -> BuildConfigManager.deleteEventToJenkinsJob(buildConfig));
+    }
+
+    private static String keyOf(BuildConfig buildConfig) {
+        String uid = buildConfig.getMetadata().getUid();
+        return uid != null ? uid
+                : buildConfig.getMetadata().getNamespace() + "/" + buildConfig.getMetadata().getName();
+    }
+
+    /**
+     * @return the UID of the BuildConfig owning the Build, or a key of its own
+     *         for a Build without one
+     */
+    private static String keyOf(Build build) {
+        if (build.getMetadata().getOwnerReferences() != null) {
+            for (OwnerReference ref : build.getMetadata().getOwnerReferences()) {
+                if ("BuildConfig".equals(ref.getKind()) && ref.getUid() != null && !ref.getUid().isEmpty()) {
+                    return ref.getUid();
+                }
+            }
+        }
+        return "build " + build.getMetadata().getNamespace() + "/" + build.getMetadata().getName();
+    }
+}
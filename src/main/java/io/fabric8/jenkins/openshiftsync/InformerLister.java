@@ -0,0 +1,145 @@
+/**
+ * Copyright (C) 2016 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.fabric8.jenkins.openshiftsync;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import io.fabric8.kubernetes.api.model.HasMetadata;
+import io.fabric8.kubernetes.client.informers.SharedIndexInformer;
+import io.fabric8.kubernetes.client.informers.cache.Cache;
+import io.fabric8.openshift.api.model.Build;
+import io.fabric8.openshift.api.model.BuildConfig;
+
+/**
+ * Read-only view over the caches of the running informers of one resource
+ * type. The informers register themselves when they start, either for a set
+ * of namespaces or for the whole cluster. Resources can be looked up by
+ * namespace and name, or by UID.
+ *
+ * The returned objects are the ones held by the cache and must not be
+ * modified; copy them first.
+ *
+ * Lookups never call the API server: callers check {@link #hasSynced(String)}
+ * and fall back to a live request when the cache of the namespace cannot be
+ * trusted yet.
+ *
+ * @param <T> the resource type
+ */
+public class InformerLister<T extends HasMetadata> {
+
+    public static final InformerLister<Build> BUILDS = new InformerLister<>();
+    public static final InformerLister<BuildConfig> BUILD_CONFIGS = new InformerLister<>();
+
+    private static final String UID_INDEX = "uid";
+
+    private final CopyOnWriteArrayList<Registration<T>> registrations = new CopyOnWriteArrayList<>();
+
+    /**
+     * Registers an informer, which must not have been started yet since its
+     * UID index is added here.
+     *
+     * @param informer   the informer whose cache to read
+     * @param namespaces the namespaces the informer is responsible for
+     */
+    public void register(SharedIndexInformer<T> informer, Collection<String> namespaces) {
+        informer.addIndexers(Collections.singletonMap(UID_INDEX, InformerLister::uidOf));
+        registrations.add(new Registration<>(informer, new HashSet<>(namespaces)));
+    }
+
+    private static List<String> uidOf(HasMetadata resource) {
+        String uid = resource.getMetadata() != null ? resource.getMetadata().getUid() : null;
+        return uid != null ? Collections.singletonList(uid) : Collections.<String>emptyList();
+    }
+
+    public void unregister(SharedIndexInformer<T> informer) {
+        registrations.removeIf(r -> r.informer == informer);
+    }
+
+    /**
+     * @return true if an informer responsible for the namespace has synced
+     */
+    public boolean hasSynced(String namespace) {
+        return getInformer(namespace) != null;
+    }
+
+    /**
+     * @return the cached resource, or null if it is not in the cache
+     */
+    public T get(String namespace, String name) {
+        SharedIndexInformer<T> informer = getInformer(namespace);
+        return informer != null ? informer.getIndexer().getByKey(namespace + "/" + name) : null;
+    }
+
+    /**
+     * @param namespace the namespace of the resource
+     * @param uid       the UID of the resource
+     * @return the cached resource, or null if it is not in the cache
+     */
+    public T getByUid(String namespace, String uid) {
+        SharedIndexInformer<T> informer = getInformer(namespace);
+        if (informer == null || uid == null) {
+            return null;
+        }
+        List<T> resources = informer.getIndexer().byIndex(UID_INDEX, uid);
+        return resources.isEmpty() ? null : resources.get(0);
+    }
+
+    /**
+     * @param namespace the namespace to list
+     * @return the cached resources of the namespace, empty if no informer
+     *         responsible for it has synced
+     */
+    public List<T> list(String namespace) {
+        SharedIndexInformer<T> informer = getInformer(namespace);
+        return informer != null ? informer.getIndexer().byIndex(Cache.NAMESPACE_INDEX, namespace)
+                : Collections.<T>emptyList();
+    }
+
+    /**
+     * @param namespace the namespace of the resources
+     * @param indexName an index added to the informers of the namespace
+     * @param indexKey  the key to look up
+     * @return the cached resources under the key, empty if no informer
+     *         responsible for the namespace has synced
+     */
+    public List<T> byIndex(String namespace, String indexName, String indexKey) {
+        SharedIndexInformer<T> informer = getInformer(namespace);
+        return informer != null ? informer.getIndexer().byIndex(indexName, indexKey) : Collections.<T>emptyList();
+    }
+
+    private SharedIndexInformer<T> getInformer(String namespace) {
+        for (Registration<T> registration : registrations) {
+            if (registration.namespaces.contains(namespace) && registration.informer.hasSynced()) {
+                return registration.informer;
+            }
+        }
+        return null;
+    }
+
+    private static class Registration<T> {
+        private final SharedIndexInformer<T> informer;
+        private final Collection<String> namespaces;
+
+        Registration(SharedIndexInformer<T> informer, Collection<String> namespaces) {
+            this.informer = informer;
+            this.namespaces = namespaces;
+        }
+    }
+}
@@ -0,0 +1,172 @@
+/**
+ * Copyright (C) 2016 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.fabric8.jenkins.openshiftsync;
+
+import static io.fabric8.jenkins.openshiftsync.OpenShiftUtils.getInformerFactory;
+import static java.util.Collections.singletonMap;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import io.fabric8.kubernetes.api.model.Service;
+import io.fabric8.kubernetes.client.dsl.base.OperationContext;
+import io.fabric8.kubernetes.client.informers.ResourceEventHandler;
+import io.fabric8.kubernetes.client.informers.SharedIndexInformer;
+import io.fabric8.kubernetes.client.informers.SharedInformerFactory;
+import io.fabric8.openshift.api.model.Route;
+import io.fabric8.openshift.client.OpenShiftClient;
+
+/**
+ * Resolves the URL Jenkins is exposed at when no root URL is configured, i.e.
+ * the host of the Route pointing to the jenkins Service or else the Service's
+ * cluster IP.
+ *
+ * Resolved URLs are cached per namespace. In the namespace Jenkins runs in,
+ * Route and Service informers keep the cache current: the URL is computed from
+ * their stores and any Route or Service event drops the cached value. Other
+ * namespaces fall back to listing Routes, with the result kept for
+ * {@link #CACHE_TTL_MS}.
+ */
+public class JenkinsUrlResolver implements Lifecyclable {
+    private static final Logger logger = Logger.getLogger(JenkinsUrlResolver.class.getName());
+
+    static final String JENKINS_SERVICE_NAME = "jenkins";
+    private static final String DEFAULT_PROTOCOL = "http://";
+    static final long CACHE_TTL_MS = TimeUnit.MINUTES.toMillis(5);
+
+    private static final ConcurrentHashMap<String, CachedUrl> cache = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<String, JenkinsUrlResolver> watched = new ConcurrentHashMap<>();
+
+    private final String namespace;
+    private SharedIndexInformer<Route> routeInformer;
+    private SharedIndexInformer<Service> serviceInformer;
+
+    public JenkinsUrlResolver(String namespace) {
+        this.namespace = namespace;
+    }
+
+    /**
+     * @param client    the client to list Routes with when the namespace is not
+     *                  watched
+     * @param namespace the namespace the jenkins Service lives in
+     * @return the external URL of Jenkins
+     */
+    public static String resolve(OpenShiftClient client, String namespace) {
+        if (namespace == null) {
+            return DEFAULT_PROTOCOL + JENKINS_SERVICE_NAME;
+        }
+        long now = System.currentTimeMillis();
+        CachedUrl cached = cache.get(namespace);
+        if (cached != null && !cached.isExpired(now)) {
+            return cached.url;
+        }
+        JenkinsUrlResolver resolver = watched.get(namespace);
+        String url = resolver != null ? resolver.resolveFromStores() : null;
+        if (url != null) {
+            // kept until a Route or Service event invalidates it
+            cache.put(namespace, new CachedUrl(url, Long.MAX_VALUE));
+        } else {
+            url = OpenShiftUtils.getExternalServiceUrl(client, DEFAULT_PROTOCOL, namespace, JENKINS_SERVICE_NAME);
+            cache.put(namespace, new CachedUrl(url, now + CACHE_TTL_MS));
+        }
+        return url;
+    }
+
+    /**
+     * Drops the cached URL of the given namespace.
+     */
+    public static void invalidate(String namespace) {
+        if (namespace != null && cache.remove(namespace) != null) {
+            logger.fine("Invalidated cached Jenkins URL for namespace " + namespace);
+        }
+    }
+
+    private String resolveFromStores() {
+        if (routeInformer == null || serviceInformer == null || !routeInformer.hasSynced()
+                || !serviceInformer.hasSynced()) {
+            return null;
+        }
+        for (Route route : routeInformer.getStore().list()) {
+            String url = OpenShiftUtils.getRouteUrl(route, JENKINS_SERVICE_NAME);
+            if (url != null) {
+                return url;
+            }
+        }
+        Service service = serviceInformer.getStore().getByKey(namespace + "/" + JENKINS_SERVICE_NAME);
+        String url = OpenShiftUtils.getServiceUrl(service, DEFAULT_PROTOCOL);
+        return url != null ? url : DEFAULT_PROTOCOL + JENKINS_SERVICE_NAME;
+    }
+
+    @Override
+    public void start() {
+        logger.info("Starting Jenkins URL informers for namespace " + namespace);
+        SharedInformerFactory factory = getInformerFactory().inNamespace(namespace);
+        this.routeInformer = factory.sharedIndexInformerFor(Route.class, CACHE_TTL_MS);
+        this.routeInformer.addEventHandler(new InvalidatingHandler<Route>());
+        OperationContext jenkinsService = new OperationContext()
+                .withFields(singletonMap("metadata.name", JENKINS_SERVICE_NAME));
+        this.serviceInformer = factory.sharedIndexInformerFor(Service.class, jenkinsService, CACHE_TTL_MS);
+        this.serviceInformer.addEventHandler(new InvalidatingHandler<Service>());
+        factory.startAllRegisteredInformers();
+        watched.put(namespace, this);
+        invalidate(namespace);
+    }
+
+    @Override
+    public void stop() {
+        logger.info("Stopping Jenkins URL informers for namespace " + namespace);
+        watched.remove(namespace, this);
+        invalidate(namespace);
+        if (routeInformer != null) {
+            routeInformer.stop();
+        }
+        if (serviceInformer != null) {
+            serviceInformer.stop();
+        }
+    }
+
+    private class InvalidatingHandler<T> implements ResourceEventHandler<T> {
+        @Override
+        public void onAdd(T obj) {
+            invalidate(namespace);
+        }
+
+        @Override
+        public void onUpdate(T oldObj, T newObj) {
+            invalidate(namespace);
+        }
+
+        @Override
+        public void onDelete(T obj, boolean deletedFinalStateUnknown) {
+            invalidate(namespace);
+        }
+    }
+
+    private static class CachedUrl {
+        private final String url;
+        private final long expiresAt;
+
+        CachedUrl(String url, long expiresAt) {
+            this.url = url;
+            this.expiresAt = expiresAt;
+        }
+
+        boolean isExpired(long now) {
+            return now > expiresAt;
+        }
+    }
+}
@@ -15,20 +15,21 @@
  */
 package io.fabric8.jenkins.openshiftsync;
 
+import static io.fabric8.jenkins.openshiftsync.ApiRateLimiter.withPriority;
+import static io.fabric8.jenkins.openshiftsync.ApiRateLimiter.Priority.TRIGGER;
 import static io.fabric8.jenkins.openshiftsync.BuildConfigToJobMap.getJobFromBuildConfig;
 import static io.fabric8.jenkins.openshiftsync.BuildConfigToJobMap.putJobWithBuildConfig;
 import static io.fabric8.jenkins.openshiftsync.BuildPhases.CANCELLED;
 import static io.fabric8.jenkins.openshiftsync.BuildPhases.PENDING;
 import static io.fabric8.jenkins.openshiftsync.BuildRunPolicy.SERIAL;
 import static io.fabric8.jenkins.openshiftsync.BuildRunPolicy.SERIAL_LATEST_ONLY;
-import static io.fabric8.jenkins.openshiftsync.Constants.OPENSHIFT_ANNOTATIONS_BUILD_NUMBER;
 import static io.fabric8.jenkins.openshiftsync.Constants.OPENSHIFT_BUILD_STATUS_FIELD;
 import static io.fabric8.jenkins.openshiftsync.Constants.OPENSHIFT_LABELS_BUILD_CONFIG_NAME;
 import static io.fabric8.jenkins.openshiftsync.CredentialsUtils.updateSourceCredentials;
 import static io.fabric8.jenkins.openshiftsync.OpenShiftUtils.getAuthenticatedOpenShiftClient;
+import static io.fabric8.jenkins.openshiftsync.OpenShiftUtils.getBuildConfig;
 import static io.fabric8.jenkins.openshiftsync.OpenShiftUtils.isCancelled;
 import static io.fabric8.jenkins.openshiftsync.OpenShiftUtils.updateOpenShiftBuildPhase;
-import static java.util.Collections.sort;
 import static java.util.logging.Level.SEVERE;
 import static java.util.logging.Level.WARNING;
 import static org.apache.commons.lang.StringUtils.isBlank;
@@ -37,11 +38,13 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.net.URISyntaxException;
 import java.util.ArrayList;
-import java.util.Comparator;
-import java.util.HashMap;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
 import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -60,12 +63,15 @@ import com.cloudbees.plugins.credentials.CredentialsParameterDefinition;
 
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import hudson.AbortException;
+import hudson.BulkChange;
+import hudson.Util;
 import hudson.model.Action;
 import hudson.model.BooleanParameterDefinition;
 import hudson.model.Cause;
 import hudson.model.CauseAction;
 import hudson.model.ChoiceParameterDefinition;
 import hudson.model.FileParameterDefinition;
+import hudson.model.ItemGroup;
 import hudson.model.Job;
 import hudson.model.ParameterDefinition;
 import hudson.model.ParameterValue;
@@ -77,6 +83,7 @@ import hudson.model.RunParameterDefinition;
 import hudson.model.StringParameterDefinition;
 import hudson.model.StringParameterValue;
 import hudson.model.TopLevelItem;
+import hudson.model.listeners.ItemListener;
 import hudson.plugins.git.RevisionParameterAction;
 import hudson.security.ACL;
 import hudson.slaves.Cloud;
@@ -85,14 +92,15 @@ import hudson.util.XStream2;
 import io.fabric8.kubernetes.api.model.EnvVar;
 import io.fabric8.kubernetes.api.model.ObjectMeta;
 import io.fabric8.openshift.api.model.Build;
-import io.fabric8.openshift.api.model.BuildBuilder;
 import io.fabric8.openshift.api.model.BuildConfig;
 import io.fabric8.openshift.api.model.BuildSpec;
 import io.fabric8.openshift.api.model.GitBuildSource;
 import io.fabric8.openshift.api.model.GitSourceRevision;
 import io.fabric8.openshift.api.model.JenkinsPipelineBuildStrategy;
 import io.fabric8.openshift.api.model.SourceRevision;
+import jenkins.model.DirectlyModifiableTopLevelItemGroup;
 import jenkins.model.Jenkins;
+import jenkins.model.ModifiableTopLevelItemGroup;
 import jenkins.security.NotReallyRoleSensitiveCallable;
 import jenkins.util.Timer;
 
@@ -102,6 +110,7 @@ public class JenkinsUtils {
 
 	private static final Logger LOGGER = Logger.getLogger(JenkinsUtils.class.getName());
 	private static final String PARAM_FROM_ENV_DESCRIPTION = "From OpenShift Build Environment Variable";
+	private static final long JOB_VISIBILITY_TIMEOUT_MS = 5000;
 
 	public static Job getJob(String job) {
 		TopLevelItem item = Jenkins.getActiveInstance().getItem(job);
@@ -128,46 +137,16 @@ public class JenkinsUtils {
                 public Void call() throws Exception {
                     if (paramMap != null) {
                         String fullName = workflowJob.getFullName();
-                        WorkflowJob job = null;
-                        long now = System.currentTimeMillis();
-                        boolean anyErrors = false;
-                        do {
-                            job = Jenkins.getActiveInstance()
-                                    .getItemByFullName(fullName,
-                                            WorkflowJob.class);
-                            
-                            if (job != null) {
-                                if (anyErrors)
-                                    LOGGER.info("finally found workflow job for " + job.getFullName());
-                                break;
-                            }
-                            
-                            anyErrors = true;
+                        WorkflowJob job = Jenkins.getActiveInstance().getItemByFullName(fullName, WorkflowJob.class);
+                        if (job == null) {
                             // this should not occur if an impersonate call has been made higher up
                             // the stack
-                            LOGGER.warning("A run of workflow job " + workflowJob.getName() + " via fullname " + workflowJob.getFullName() + " unexpectantly not saved to disk.");
-                            List<WorkflowJob> jobList = Jenkins.getActiveInstance().getAllItems(WorkflowJob.class);
-                            String jobNames = "";
-                            for (WorkflowJob j : jobList) {
-                                jobNames = jobNames + j.getFullName();
+                            LOGGER.warning("A run of workflow job " + workflowJob.getName() + " via fullname " + workflowJob.getFullName() + " unexpectantly not saved to disk, waiting for it to show up");
+                            job = JobVisibilityListener.awaitJob(fullName, JOB_VISIBILITY_TIMEOUT_MS);
+                            if (job == null) {
+                                throw new AbortException("workflow job " + workflowJob.getName() + " via fullname " + workflowJob.getFullName() + " could not be found ");
                             }
-                            LOGGER.warning("The current list of full job names: " + jobNames);
-
-                            try {
-                                Thread.sleep(50l);
-                            } catch (Throwable t) {
-                                break;
-                            }
-                        } while ((System.currentTimeMillis() - 5000) > now);
-                        if (job == null) {
-                            // seen instances where if we throw exception immediately we lose our 
-                            // most recent logger updates
-                            try {
-                                Thread.sleep(1000);
-                            } catch (Throwable t) {
-                                
-                            }
-                            throw new AbortException("workflow job " + workflowJob.getName() + " via fullname " + workflowJob.getFullName() + " could not be found ");
+                            LOGGER.info("finally found workflow job for " + job.getFullName());
                         }
                         ParametersDefinitionProperty props = job.getProperty(ParametersDefinitionProperty.class);
                         List<String> names = props.getParameterDefinitionNames();
@@ -191,64 +170,96 @@ public class JenkinsUtils {
 	public static Map<String, ParameterDefinition> addJobParamForBuildEnvs(WorkflowJob job, JenkinsPipelineBuildStrategy strat,
 			boolean replaceExisting) throws IOException {
 		List<EnvVar> envs = strat.getEnv();
-        Map<String, ParameterDefinition> paramMap = null;
-		if (envs.size() > 0) {
-			// build list of current env var names for possible deletion of env
-			// vars currently stored
-			// as job params
-			List<String> envKeys = new ArrayList<String>();
-			for (EnvVar env : envs) {
-				envKeys.add(env.getName());
+		if (envs.isEmpty()) {
+			// nothing to add, and env parameters are only dropped when their
+			// env var is gone from a non empty list
+			return null;
+		}
+		// get existing property defs, including any manually added from the
+		// jenkins console independent of BC
+		ParametersDefinitionProperty params = job.getProperty(ParametersDefinitionProperty.class);
+		List<ParameterDefinition> existingParamList = params != null ? params.getParameterDefinitions()
+				: new ArrayList<ParameterDefinition>();
+		// build set of current env var names for possible deletion of env
+		// vars currently stored
+		// as job params
+		Set<String> envKeys = new HashSet<String>();
+		for (EnvVar env : envs) {
+			envKeys.add(env.getName());
+		}
+		// keep the existing order so that an unchanged list of parameters
+		// gives the same job definition
+		Map<String, ParameterDefinition> paramMap = new LinkedHashMap<String, ParameterDefinition>();
+		// store any existing parameters in map for easy key lookup
+		for (ParameterDefinition param : existingParamList) {
+			// if a user supplied param, add
+			if (param.getDescription() == null || !param.getDescription().equals(PARAM_FROM_ENV_DESCRIPTION))
+				paramMap.put(param.getName(), param);
+			else if (envKeys.contains(param.getName())) {
+				// the env var still exists on the openshift side so
+				// keep
+				paramMap.put(param.getName(), param);
 			}
-			// get existing property defs, including any manually added from the
-			// jenkins console independent of BC
-			ParametersDefinitionProperty params = job.removeProperty(ParametersDefinitionProperty.class);
-			paramMap = new HashMap<String, ParameterDefinition>();
-			// store any existing parameters in map for easy key lookup
-			if (params != null) {
-				List<ParameterDefinition> existingParamList = params.getParameterDefinitions();
-				for (ParameterDefinition param : existingParamList) {
-					// if a user supplied param, add
-					if (param.getDescription() == null || !param.getDescription().equals(PARAM_FROM_ENV_DESCRIPTION))
-						paramMap.put(param.getName(), param);
-					else if (envKeys.contains(param.getName())) {
-						// the env var still exists on the openshift side so
-						// keep
-						paramMap.put(param.getName(), param);
-					}
-				}
+		}
+		for (EnvVar env : envs) {
+			if (replaceExisting) {
+				StringParameterDefinition envVar = new StringParameterDefinition(env.getName(), env.getValue() != null ? env.getValue() : "",
+						PARAM_FROM_ENV_DESCRIPTION);
+				paramMap.put(env.getName(), envVar);
+			} else if (!paramMap.containsKey(env.getName())) {
+				// if list from BC did not have this parameter, it was added
+				// via `oc start-build -e` ... in this
+				// case, we have chosen to make the default value an empty
+				// string
+				StringParameterDefinition envVar = new StringParameterDefinition(env.getName(), "",
+						PARAM_FROM_ENV_DESCRIPTION);
+				paramMap.put(env.getName(), envVar);
 			}
-			for (EnvVar env : envs) {
-				if (replaceExisting) {
-					StringParameterDefinition envVar = new StringParameterDefinition(env.getName(), env.getValue() != null ? env.getValue() : "",
-							PARAM_FROM_ENV_DESCRIPTION);
-					paramMap.put(env.getName(), envVar);
-				} else if (!paramMap.containsKey(env.getName())) {
-					// if list from BC did not have this parameter, it was added
-					// via `oc start-build -e` ... in this
-					// case, we have chosen to make the default value an empty
-					// string
-					StringParameterDefinition envVar = new StringParameterDefinition(env.getName(), "",
-							PARAM_FROM_ENV_DESCRIPTION);
-					paramMap.put(env.getName(), envVar);
+		}
+		if (getParamFingerprint(paramMap.values()).equals(getParamFingerprint(existingParamList))) {
+			// the job already has these parameters, no need to rewrite
+			// and save it
+			return paramMap;
+		}
+		job.removeProperty(ParametersDefinitionProperty.class);
+		List<ParameterDefinition> newParamList = new ArrayList<ParameterDefinition>(paramMap.values());
+		job.addProperty(new ParametersDefinitionProperty(newParamList));
+		// force save here ... seen some timing issues with concurrent job updates and run initiations;
+		// a run triggered right after this must see the parameters on disk, so do not defer it
+		PersistenceService.get().forget(job);
+		job.save();
+		return paramMap;
+	}
+
+	/**
+	 * Digest of the given parameter definitions which changes when a parameter
+	 * is added or removed, or when a parameter stemming from a build env var
+	 * changes its default value. Other parameters are left as they are by
+	 * {@link #addJobParamForBuildEnvs(WorkflowJob, JenkinsPipelineBuildStrategy, boolean)}
+	 * so only their name and type are part of it.
+	 */
+	static String getParamFingerprint(Collection<ParameterDefinition> params) {
+		Set<String> entries = new TreeSet<String>();
+		for (ParameterDefinition param : params) {
+			StringBuilder entry = new StringBuilder(param.getName()).append('\0').append(param.getClass().getName());
+			if (PARAM_FROM_ENV_DESCRIPTION.equals(param.getDescription())) {
+				entry.append('\0').append(param.getDescription());
+				if (param instanceof StringParameterDefinition) {
+					entry.append('\0').append(((StringParameterDefinition) param).getDefaultValue());
 				}
 			}
-			List<ParameterDefinition> newParamList = new ArrayList<ParameterDefinition>(paramMap.values());
-			job.addProperty(new ParametersDefinitionProperty(newParamList));
+			entries.add(entry.toString());
 		}
-		// force save here ... seen some timing issues with concurrent job updates and run initiations
-        InputStream jobStream = new StringInputStream(new XStream2().toXML(job));
-		updateJob(job, jobStream, null, null);
-		return paramMap;
+		return Util.getDigestOf(String.join("\n", entries));
 	}
 
 	public static List<Action> setJobRunParamsFromEnv(WorkflowJob job, JenkinsPipelineBuildStrategy strat,
 			List<Action> buildActions) {
 		List<EnvVar> envs = strat.getEnv();
-		List<String> envKeys = new ArrayList<String>();
+		Set<String> envKeys = new HashSet<String>();
 		List<ParameterValue> envVarList = new ArrayList<ParameterValue>();
 		if (envs.size() > 0) {
-			// build list of env var keys for compare with existing job params
+			// build set of env var keys for compare with existing job params
 			for (EnvVar env : envs) {
 				envKeys.add(env.getName());
         // Convert null value to empty string.
@@ -367,8 +378,7 @@ public class JenkinsUtils {
 
         ObjectMeta meta = build.getMetadata();
         String namespace = meta.getNamespace();
-        BuildConfig buildConfig = getAuthenticatedOpenShiftClient().buildConfigs().inNamespace(namespace)
-                .withName(buildConfigName).get();
+        BuildConfig buildConfig = withPriority(TRIGGER, () -> getBuildConfig(namespace, buildConfigName));
         if (buildConfig == null) {
             return false;
         }
@@ -425,6 +435,9 @@ public class JenkinsUtils {
             List<Action> buildActions = new ArrayList<>();
             CauseAction bCauseAction = new CauseAction(newCauses);
             buildActions.add(bCauseAction);
+            // keeps Jenkins from folding this build into the queue item of
+            // another one with the same parameters
+            buildActions.add(new BuildQueueAction(build.getMetadata().getUid()));
 
             BuildSpec spec = build.getSpec();
             GitBuildSource gitBuildSource = spec.getSource().getGit();
@@ -466,14 +479,6 @@ public class JenkinsUtils {
 
             if (job.scheduleBuild2(0, buildActions.toArray(new Action[buildActions.size()])) != null) {
                 updateOpenShiftBuildPhase(build, PENDING);
-                // If builds are queued too quickly, Jenkins can add the cause
-                // to the previous queued build so let's add a tiny
-                // sleep.
-                try {
-                    Thread.sleep(50l);
-                } catch (InterruptedException e) {
-                    // Ignore
-                }
                 return true;
             }
 
@@ -482,7 +487,7 @@ public class JenkinsUtils {
     }
     
 	private static boolean isAlreadyTriggered(WorkflowJob job, Build build) {
-		return getRun(job, build) != null;
+		return QueuedBuildIndex.get().getItem(build.getMetadata().getUid()) != null || getRun(job, build) != null;
 	}
 
 	public static void cancelBuild(WorkflowJob job, Build build) {
@@ -505,27 +510,15 @@ public class JenkinsUtils {
 
 	private static WorkflowRun getRun(WorkflowJob job, Build build) {
 		if (build != null && build.getMetadata() != null) {
-			return getRun(job, build.getMetadata().getUid(), 0);
+			return getRun(job, build.getMetadata().getUid());
 		}
 		return null;
 	}
 
-	private static WorkflowRun getRun(WorkflowJob job, String buildUid, int retry) {
+	private static WorkflowRun getRun(WorkflowJob job, String buildUid) {
 	    try {
-	        for (WorkflowRun run : job.getBuilds()) {
-	            BuildCause cause = run.getCause(BuildCause.class);
-	            if (cause != null && cause.getUid().equals(buildUid)) {
-	                return run;
-	            }
-	        }
+	        return BuildUidIndex.getRun(job, buildUid);
 	    } catch (Throwable t) {
-	        if (retry == 0) {
-	            try {
-                    Thread.sleep(1000);
-                } catch (InterruptedException e) {
-                }
-	            return getRun(job, buildUid, 1);
-	        }
 	        LOGGER.log(Level.WARNING, "Jenkins unavailability accessing job run; have to assume it does not exist", t);
 	    }
 		return null;
@@ -547,7 +540,7 @@ public class JenkinsUtils {
 
 	private static boolean cancelRunningBuild(WorkflowJob job, Build build) {
 		String buildUid = build.getMetadata().getUid();
-		WorkflowRun run = getRun(job, buildUid, 0);
+		WorkflowRun run = getRun(job, buildUid);
 		if (run != null && run.isBuilding()) {
 			terminateRun(run);
 			return true;
@@ -557,7 +550,7 @@ public class JenkinsUtils {
 
 	private static boolean cancelNotYetStartedBuild(WorkflowJob job, Build build) {
 		String buildUid = build.getMetadata().getUid();
-		WorkflowRun run = getRun(job, buildUid, 0);
+		WorkflowRun run = getRun(job, buildUid);
 		if (run != null && run.hasntStartedYet()) {
 			terminateRun(run);
 			return true;
@@ -599,42 +592,32 @@ public class JenkinsUtils {
 		});
 	}
 
-	@SuppressFBWarnings("SE_BAD_FIELD")
 	public static boolean cancelQueuedBuild(WorkflowJob job, Build build) {
 		String buildUid = build.getMetadata().getUid();
-		final Queue buildQueue = Jenkins.getActiveInstance().getQueue();
-		for (final Queue.Item item : buildQueue.getItems()) {
-			for (Cause cause : item.getCauses()) {
-				if (cause instanceof BuildCause && ((BuildCause) cause).getUid().equals(buildUid)) {
-					return ACL.impersonate(ACL.SYSTEM, new NotReallyRoleSensitiveCallable<Boolean, RuntimeException>() {
-						@Override
-						public Boolean call() throws RuntimeException {
-							buildQueue.cancel(item);
-							return true;
-						}
-					});
-				}
-			}
+		Queue.Item item = QueuedBuildIndex.get().getItem(buildUid);
+		if (item != null && cancelQueueItem(item)) {
+			return true;
 		}
 		return cancelNotYetStartedBuild(job, build);
 	}
 
 	public static void cancelQueuedBuilds(WorkflowJob job, String bcUid) {
-		Queue buildQueue = Jenkins.getActiveInstance().getQueue();
-		for (Queue.Item item : buildQueue.getItems()) {
-			for (Cause cause : item.getCauses()) {
-				if (cause instanceof BuildCause) {
-					BuildCause buildCause = (BuildCause) cause;
-					if (buildCause.getBuildConfigUid().equals(bcUid)) {
-						Build build = new BuildBuilder().withNewMetadata().withNamespace(buildCause.getNamespace())
-								.withName(buildCause.getName()).and().build();
-						cancelQueuedBuild(job, build);
-					}
-				}
-			}
+		for (Queue.Item item : QueuedBuildIndex.get().getItemsOfBuildConfig(bcUid)) {
+			cancelQueueItem(item);
 		}
 	}
 
+	@SuppressFBWarnings("SE_BAD_FIELD")
+	private static boolean cancelQueueItem(final Queue.Item item) {
+		final Queue buildQueue = Jenkins.getActiveInstance().getQueue();
+		return ACL.impersonate(ACL.SYSTEM, new NotReallyRoleSensitiveCallable<Boolean, RuntimeException>() {
+			@Override
+			public Boolean call() throws RuntimeException {
+				return buildQueue.cancel(item);
+			}
+		});
+	}
+
 	public static WorkflowJob getJobFromBuild(Build build) {
 		String buildConfigName = build.getStatus().getConfig().getName();
 		if (StringUtils.isEmpty(buildConfigName)) {
@@ -647,14 +630,58 @@ public class JenkinsUtils {
 		    return job;
 		}
 
-		BuildConfig buildConfig = getAuthenticatedOpenShiftClient().buildConfigs()
-				.inNamespace(build.getMetadata().getNamespace()).withName(buildConfigName).get();
+		BuildConfig buildConfig = withPriority(TRIGGER,
+				() -> getBuildConfig(build.getMetadata().getNamespace(), buildConfigName));
 		if (buildConfig == null) {
 			return null;
 		}
 		return getJobFromBuildConfig(buildConfig);
 	}
 
+    /**
+     * Adds a new item, configured in memory, to its parent the way
+     * createProjectFromXML does but without writing it out as XML and parsing
+     * it back. Saving the item is left to the caller, e.g. through a
+     * {@link BulkChange}. If the given item is returned, the caller calls
+     * {@link #fireItemCreated} once it is saved so that ItemListeners see the
+     * item on disk; otherwise the parent, which cannot take an item directly,
+     * created the item from XML and did both already.
+     *
+     * @param parent the folder or Jenkins itself
+     * @param name   the name of the new item
+     * @param item   the new item, created with the given parent and name
+     * @return the item now held by the parent
+     * @throws IOException              if the item cannot be created
+     * @throws IllegalArgumentException if the parent already has an item of
+     *                                  that name
+     */
+    @SuppressWarnings("unchecked")
+    public static <I extends TopLevelItem> I addItem(ItemGroup<?> parent, String name, I item) throws IOException {
+        if (!(parent instanceof DirectlyModifiableTopLevelItemGroup)) {
+            if (!(parent instanceof ModifiableTopLevelItemGroup)) {
+                throw new IOException("Cannot create item " + name + " in " + parent.getFullName());
+            }
+            InputStream itemStream = new StringInputStream(new XStream2().toXML(item));
+            return (I) ((ModifiableTopLevelItemGroup) parent).createProjectFromXML(name, itemStream);
+        }
+        item.onCreatedFromScratch();
+        ((DirectlyModifiableTopLevelItemGroup) parent).add(item, name);
+        return item;
+    }
+
+    /**
+     * Notifies ItemListeners of an item added by
+     * {@link #addItem(ItemGroup, String, TopLevelItem)}, once it is saved. The
+     * dependency graph is rebuilt unless a {@link BuildConfigBootstrap} is
+     * running, which rebuilds it once when it is done.
+     */
+    public static void fireItemCreated(TopLevelItem item) {
+        ItemListener.fireOnCreated(item);
+        if (!BuildConfigBootstrap.isRunning()) {
+            Jenkins.getActiveInstance().rebuildDependencyGraphAsync();
+        }
+    }
+
     public static void updateJob(WorkflowJob job, InputStream jobStream, String existingBuildRunPolicy, BuildConfigProjectProperty buildConfigProjectProperty) throws IOException {
         try {
             ACL.impersonate(ACL.SYSTEM, new NotReallyRoleSensitiveCallable<Void, Exception>() {
@@ -662,7 +689,7 @@ public class JenkinsUtils {
                 public Void call() throws Exception {
                     Source source = new StreamSource(jobStream);
                     job.updateByXml(source);
-                    job.save();
+                    PersistenceService.get().markDirty(job);
                     if (existingBuildRunPolicy != null && buildConfigProjectProperty != null && !existingBuildRunPolicy.equals(buildConfigProjectProperty.getBuildRunPolicy())) {
                         maybeScheduleNext(job);
                     }
@@ -681,9 +708,14 @@ public class JenkinsUtils {
 			return;
 		}
 
-		List<Build> builds = getAuthenticatedOpenShiftClient().builds().inNamespace(bcp.getNamespace())
-				.withField(OPENSHIFT_BUILD_STATUS_FIELD, BuildPhases.NEW)
-				.withLabel(OPENSHIFT_LABELS_BUILD_CONFIG_NAME, bcp.getName()).list().getItems();
+		List<Build> builds;
+		if (InformerLister.BUILDS.hasSynced(bcp.getNamespace())) {
+			builds = NewBuildIndex.getNewBuilds(bcp.getNamespace(), bcp.getName());
+		} else {
+			builds = withPriority(TRIGGER, () -> getAuthenticatedOpenShiftClient().builds()
+					.inNamespace(bcp.getNamespace()).withField(OPENSHIFT_BUILD_STATUS_FIELD, BuildPhases.NEW)
+					.withLabel(OPENSHIFT_LABELS_BUILD_CONFIG_NAME, bcp.getName()).list().getItems());
+		}
 		handleBuildList(job, builds, bcp);
 	}
 
@@ -698,66 +730,7 @@ public class JenkinsUtils {
 			// for executor perhaps.
 			cancelNotYetStartedBuilds(job, buildConfigProjectProperty.getUid());
 		}
-		sort(builds, new Comparator<Build>() {
-			@Override
-			public int compare(Build b1, Build b2) {
-				// Order so cancellations are first in list so we can stop
-				// processing build list when build run policy is
-				// SerialLatestOnly and job is currently building.
-				Boolean b1Cancelled = b1.getStatus() != null && b1.getStatus().getCancelled() != null
-						? b1.getStatus().getCancelled()
-						: false;
-				Boolean b2Cancelled = b2.getStatus() != null && b2.getStatus().getCancelled() != null
-						? b2.getStatus().getCancelled()
-						: false;
-				// Inverse comparison as boolean comparison would put false
-				// before true. Could have inverted both cancellation
-				// states but this removes that step.
-				int cancellationCompare = b2Cancelled.compareTo(b1Cancelled);
-				if (cancellationCompare != 0) {
-					return cancellationCompare;
-				}
-
-                if (b1.getMetadata().getAnnotations() == null
-                        || b1.getMetadata().getAnnotations()
-                                .get(OPENSHIFT_ANNOTATIONS_BUILD_NUMBER) == null) {
-                    LOGGER.warning("cannot compare build "
-                            + b1.getMetadata().getName()
-                            + " from namespace "
-                            + b1.getMetadata().getNamespace()
-                            + ", has bad annotations: "
-                            + b1.getMetadata().getAnnotations());
-                    return 0;
-                }
-                if (b2.getMetadata().getAnnotations() == null
-                        || b2.getMetadata().getAnnotations()
-                                .get(OPENSHIFT_ANNOTATIONS_BUILD_NUMBER) == null) {
-                    LOGGER.warning("cannot compare build "
-                            + b2.getMetadata().getName()
-                            + " from namespace "
-                            + b2.getMetadata().getNamespace()
-                            + ", has bad annotations: "
-                            + b2.getMetadata().getAnnotations());
-                    return 0;
-                }
-                int rc = 0;
-                try {
-                    rc = Long.compare(
-
-                            Long.parseLong(b1
-                                    .getMetadata()
-                                    .getAnnotations()
-                                    .get(OPENSHIFT_ANNOTATIONS_BUILD_NUMBER)),
-                            Long.parseLong(b2
-                                    .getMetadata()
-                                    .getAnnotations()
-                                    .get(OPENSHIFT_ANNOTATIONS_BUILD_NUMBER)));
-                } catch (Throwable t) {
-                    LOGGER.log(Level.FINE, "handleBuildList", t);
-                }
-                return rc;
-			}
-		});
+		builds = sortForRunPolicy(builds);
 		boolean isSerial = SERIAL.equals(buildConfigProjectProperty.getBuildRunPolicy());
 		boolean jobIsBuilding = job.isBuilding();
 		for (int i = 0; i < builds.size(); i++) {
@@ -795,6 +768,29 @@ public class JenkinsUtils {
 		}
 	}
 
+	/**
+	 * Orders cancellations first so we can stop processing the build list when
+	 * the build run policy is SerialLatestOnly and the job is currently
+	 * building, then by build number. Build numbers are parsed once per Build
+	 * rather than on every comparison.
+	 */
+	static List<Build> sortForRunPolicy(List<Build> builds) {
+		List<long[]> keys = new ArrayList<>(builds.size());
+		for (int i = 0; i < builds.size(); i++) {
+			Build b = builds.get(i);
+			keys.add(new long[] { isCancelled(b.getStatus()) ? 0 : 1, NewBuildIndex.buildNumberOf(b), i });
+		}
+		keys.sort((k1, k2) -> {
+			int rc = Long.compare(k1[0], k2[0]);
+			return rc != 0 ? rc : Long.compare(k1[1], k2[1]);
+		});
+		List<Build> sorted = new ArrayList<>(keys.size());
+		for (long[] key : keys) {
+			sorted.add(builds.get((int) key[2]));
+		}
+		return sorted;
+	}
+
 	public static String getFullJobName(WorkflowJob job) {
 		return job.getRelativeNameFrom(Jenkins.getInstance());
 	}
@@ -7,6 +7,9 @@ import static io.fabric8.jenkins.openshiftsync.BuildConfigToJobMap.putJobWithBui
 import static io.fabric8.jenkins.openshiftsync.BuildConfigToJobMapper.mapBuildConfigToFlow;
 import static io.fabric8.jenkins.openshiftsync.BuildRunPolicy.SERIAL;
 import static io.fabric8.jenkins.openshiftsync.BuildRunPolicy.SERIAL_LATEST_ONLY;
+import static io.fabric8.jenkins.openshiftsync.JenkinsUtils.addItem;
+import static io.fabric8.jenkins.openshiftsync.JenkinsUtils.fireItemCreated;
+import static io.fabric8.jenkins.openshiftsync.JenkinsUtils.maybeScheduleNext;
 import static io.fabric8.jenkins.openshiftsync.JenkinsUtils.updateJob;
 import static io.fabric8.jenkins.openshiftsync.OpenShiftUtils.getAnnotation;
 import static io.fabric8.jenkins.openshiftsync.OpenShiftUtils.getFullNameParent;
@@ -20,6 +23,7 @@ import static io.fabric8.jenkins.openshiftsync.OpenShiftUtils.parseResourceVersi
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.Map;
+import java.util.Objects;
 import java.util.logging.Logger;
 
 import org.apache.tools.ant.filters.StringInputStream;
@@ -32,6 +36,7 @@ import hudson.AbortException;
 import hudson.BulkChange;
 import hudson.model.ItemGroup;
 import hudson.model.ParameterDefinition;
+import hudson.model.listeners.ItemListener;
 import hudson.util.XStream2;
 import io.fabric8.openshift.api.model.BuildConfig;
 import jenkins.model.Jenkins;
@@ -40,6 +45,9 @@ import jenkins.security.NotReallyRoleSensitiveCallable;
 public class JobProcessor extends NotReallyRoleSensitiveCallable<Void, Exception> {
 
     private final BuildConfig buildConfig;
+    // how ItemListeners are to be told about the job once it is saved
+    private boolean fireCreated;
+    private boolean fireUpdated;
     private final static Logger logger = Logger.getLogger(BuildConfigToJobMap.class.getName());
 
     public JobProcessor(BuildConfig buildConfig) {
@@ -59,6 +67,22 @@ public class JobProcessor extends NotReallyRoleSensitiveCallable<Void, Exception
             job = (WorkflowJob) activeInstance.getItemByFullName(jobFullName);
         }
         boolean newJob = job == null;
+        String fingerprint = BuildConfigProjectProperty.fingerprintOf(buildConfig);
+
+        if (!newJob && isUpToDate(job, fingerprint)) {
+            // a resync or a change to fields the job does not use, e.g. the
+            // status, leave the job as it is
+            BuildConfigProjectProperty property = job.getProperty(BuildConfigProjectProperty.class);
+            String resourceVersion = buildConfig.getMetadata().getResourceVersion();
+            if (!Objects.equals(resourceVersion, property.getResourceVersion())) {
+                property.setResourceVersion(resourceVersion);
+                PersistenceService.get().markDirty(job);
+            }
+            putJobWithBuildConfig(job, buildConfig);
+            logger.fine("Job " + jobFullName + " is up to date with BuildConfig " + NamespaceName.create(buildConfig)
+                    + " revision: " + buildConfig.getMetadata().getResourceVersion());
+            return null;
+        }
 
         if (newJob) {
             String disableOn = getAnnotation(buildConfig, DISABLE_SYNC_CREATE);
@@ -78,9 +102,14 @@ public class JobProcessor extends NotReallyRoleSensitiveCallable<Void, Exception
         if (flowFromBuildConfig == null) {
             return null;
         }
-        Map<String, ParameterDefinition> paramMap = createOrUpdateJob(activeInstance, parent, jobName, job, newJob,
-                flowFromBuildConfig);
+        Map<String, ParameterDefinition> paramMap = createOrUpdateJob(parent, jobName, job, newJob,
+                flowFromBuildConfig, fingerprint);
         bulkJob.commit();
+        if (fireCreated) {
+            fireItemCreated(job);
+        } else if (fireUpdated) {
+            ItemListener.fireOnUpdated(job);
+        }
         populateNamespaceFolder(activeInstance, parent, jobName, job, paramMap);
         return null;
     }
@@ -107,14 +136,15 @@ public class JobProcessor extends NotReallyRoleSensitiveCallable<Void, Exception
         }
     }
 
-    private Map<String, ParameterDefinition> createOrUpdateJob(Jenkins activeInstance, ItemGroup parent, String jobName,
-            WorkflowJob job, boolean newJob, FlowDefinition flowFromBuildConfig) throws IOException {
+    private Map<String, ParameterDefinition> createOrUpdateJob(ItemGroup parent, String jobName,
+            WorkflowJob job, boolean newJob, FlowDefinition flowFromBuildConfig, String fingerprint) throws IOException {
         job.setDefinition(flowFromBuildConfig);
 
         String existingBuildRunPolicy = null;
 
         BuildConfigProjectProperty buildConfigProjectProperty = job.getProperty(BuildConfigProjectProperty.class);
         existingBuildRunPolicy = populateBCProjectProperty(job, existingBuildRunPolicy, buildConfigProjectProperty);
+        job.getProperty(BuildConfigProjectProperty.class).setBuildConfigFingerprint(fingerprint);
 
         // (re)populate job param list with any envs
         // from the build config
@@ -124,16 +154,11 @@ public class JobProcessor extends NotReallyRoleSensitiveCallable<Void, Exception
         job.setConcurrentBuild(!(buildConfig.getSpec().getRunPolicy().equals(SERIAL)
                 || buildConfig.getSpec().getRunPolicy().equals(SERIAL_LATEST_ONLY)));
 
-        InputStream jobStream = new StringInputStream(new XStream2().toXML(job));
-
         if (newJob) {
             try {
-                if (parent instanceof Folder) {
-                    Folder folder = (Folder) parent;
-                    folder.createProjectFromXML(jobName, jobStream).save();
-                } else {
-                    activeInstance.createProjectFromXML(jobName, jobStream).save();
-                }
+                // the job is saved when the caller commits its BulkChange,
+                // listeners are notified after that
+                fireCreated = addItem(parent, jobName, job) == job;
 
                 logger.info("Created job " + jobName + " from BuildConfig " + NamespaceName.create(buildConfig)
                         + " with revision: " + buildConfig.getMetadata().getResourceVersion());
@@ -151,20 +176,33 @@ public class JobProcessor extends NotReallyRoleSensitiveCallable<Void, Exception
                 // jenkins might reload existing jobs on
                 // startup between the
                 // newJob check above and when we make
-                // the createProjectFromXML call; if so,
-                // retry as an update
+                // the addItem call; if so,
+                // retry as an update; updateByXml notifies the listeners
+                InputStream jobStream = new StringInputStream(new XStream2().toXML(job));
                 updateJob(job, jobStream, existingBuildRunPolicy, buildConfigProjectProperty);
                 logger.info("Updated job " + jobName + " from BuildConfig " + NamespaceName.create(buildConfig)
                         + " with revision: " + buildConfig.getMetadata().getResourceVersion());
             }
         } else {
-            updateJob(job, jobStream, existingBuildRunPolicy, buildConfigProjectProperty);
+            // the job was updated in place, the caller's BulkChange saves it
+            // and listeners are notified after that
+            fireUpdated = true;
+            if (existingBuildRunPolicy != null && buildConfigProjectProperty != null
+                    && !existingBuildRunPolicy.equals(buildConfigProjectProperty.getBuildRunPolicy())) {
+                maybeScheduleNext(job);
+            }
             logger.info("Updated job " + jobName + " from BuildConfig " + NamespaceName.create(buildConfig)
                     + " with revision: " + buildConfig.getMetadata().getResourceVersion());
         }
         return paramMap;
     }
 
+    private boolean isUpToDate(WorkflowJob job, String fingerprint) {
+        BuildConfigProjectProperty property = job.getProperty(BuildConfigProjectProperty.class);
+        return property != null && fingerprint.equals(property.getBuildConfigFingerprint())
+                && job.getDefinition() != null;
+    }
+
     private String populateBCProjectProperty(WorkflowJob job, String existingBuildRunPolicy,
             BuildConfigProjectProperty buildConfigProjectProperty) throws IOException {
         if (buildConfigProjectProperty != null) {
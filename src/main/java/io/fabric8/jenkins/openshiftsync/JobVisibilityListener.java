@@ -0,0 +1,98 @@
+/**
+ * Copyright (C) 2016 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.fabric8.jenkins.openshiftsync;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.jenkinsci.plugins.workflow.job.WorkflowJob;
+
+import hudson.Extension;
+import hudson.model.Item;
+import hudson.model.listeners.ItemListener;
+import jenkins.model.Jenkins;
+
+/**
+ * Lets a caller wait for a job to become visible under its full name, woken up
+ * by item notifications rather than polling.
+ */
+@Extension
+public class JobVisibilityListener extends ItemListener {
+
+    // shared by the callers waiting for the same job, removed when the last
+    // of them leaves
+    private static final ConcurrentHashMap<String, Waiter> waiters = new ConcurrentHashMap<>();
+
+    /**
+     * @param fullName  the full name of the job
+     * @param timeoutMs how long to wait for the job to show up
+     * @return the job, or null if it did not show up in time
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public static WorkflowJob awaitJob(String fullName, long timeoutMs) throws InterruptedException {
+        Waiter waiter = waiters.compute(fullName, (k, w) -> {
+            w = w != null ? w : new Waiter();
+            w.refs++;
+            return w;
+        });
+        try {
+            // look again now that we are registered, the job may have shown
+            // up before
+            WorkflowJob job = Jenkins.getActiveInstance().getItemByFullName(fullName, WorkflowJob.class);
+            if (job != null) {
+                return job;
+            }
+            return waiter.job.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException | TimeoutException e) {
+            return null;
+        } finally {
+            waiters.computeIfPresent(fullName, (k, w) -> --w.refs > 0 ? w : null);
+        }
+    }
+
+    private static void jobSeen(Item item) {
+        if (item instanceof WorkflowJob && !waiters.isEmpty()) {
+            Waiter waiter = waiters.get(item.getFullName());
+            if (waiter != null) {
+                waiter.job.complete((WorkflowJob) item);
+            }
+        }
+    }
+
+    @Override
+    public void onCreated(Item item) {
+        jobSeen(item);
+    }
+
+    @Override
+    public void onUpdated(Item item) {
+        jobSeen(item);
+    }
+
+    @Override
+    public void onLocationChanged(Item item, String oldFullName, String newFullName) {
+        jobSeen(item);
+    }
+
+    private static class Waiter {
+        private final CompletableFuture<WorkflowJob> job = new CompletableFuture<>();
+        // guarded by the map entry
+        private int refs;
+    }
+}
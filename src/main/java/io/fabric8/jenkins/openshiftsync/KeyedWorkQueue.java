@@ -0,0 +1,290 @@
+/**
+ * Copyright (C) 2016 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.fabric8.jenkins.openshiftsync;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
+
+/**
+ * Controller style work queue: work is queued under a key, the work of one key
+ * runs one item at a time in the order it was queued, and the work of
+ * different keys runs in parallel on a bounded pool.
+ *
+ * Each work item also has an item key. Work queued for an item key which is
+ * still waiting replaces the waiting work in place, so a burst of events for
+ * the same object collapses into one run with the latest state. Work which
+ * fails is queued again after an exponential backoff, unless newer work for
+ * the same item was submitted in the meantime, whether that work is still
+ * waiting or already ran, and dropped after {@code maxRetries} attempts.
+ */
+public class KeyedWorkQueue {
+    private static final Logger logger = Logger.getLogger(KeyedWorkQueue.class.getName());
+
+    /**
+     * A unit of work.
+     */
+    public interface Work {
+        void run() throws Exception;
+    }
+
+    private final ExecutorService workers;
+    private final ScheduledExecutorService retryTimer;
+    private final long baseRetryDelayMs;
+    private final long maxRetryDelayMs;
+    private final int maxRetries;
+
+    // guarded by this
+    private final Map<String, LinkedHashMap<String, Work>> pending = new HashMap<>();
+    private final Deque<String> ready = new ArrayDeque<>();
+    private final Set<String> active = new HashSet<>();
+    private final Map<String, Integer> failures = new HashMap<>();
+    // sequence number of the latest work submitted for each item, until that
+    // work is done
+    private final Map<String, Long> sequences = new HashMap<>();
+    private long lastSequence;
+    // by sequence number, completed once the work first ran or was replaced
+    private final Map<Long, CompletableFuture<Void>> attempts = new HashMap<>();
+    private long collapsed;
+    private long retried;
+    private long dropped;
+
+    /**
+     * @param threads          the number of workers
+     * @param name             the name of the worker threads
+     * @param retryTimer       schedules the retries of failed work
+     * @param baseRetryDelayMs the delay before the first retry, doubled on every
+     *                         further failure
+     * @param maxRetryDelayMs  the longest delay between retries
+     * @param maxRetries       how often failed work is retried
+     */
+    public KeyedWorkQueue(int threads, String name, ScheduledExecutorService retryTimer, long baseRetryDelayMs,
+            long maxRetryDelayMs, int maxRetries) {
+        this.workers = Executors.newFixedThreadPool(Math.max(1, threads),
+                new NamingThreadFactory(new DaemonThreadFactory(), name));
+        this.retryTimer = retryTimer;
+        this.baseRetryDelayMs = baseRetryDelayMs;
+        this.maxRetryDelayMs = maxRetryDelayMs;
+        this.maxRetries = maxRetries;
+    }
+
+    /**
+     * Queues work, replacing work for the same item which is still waiting.
+     *
+     * @param key     work of the same key runs serially
+     * @param itemKey identifies the object the work is about, within the key
+     * @param work    the work
+     * @return completed when the work has run once, exceptionally if it failed,
+     *         or when it was replaced by newer work for the same item before it
+     *         ran; retries of failed work are not waited for
+     */
+    public CompletableFuture<Void> submit(String key, String itemKey, Work work) {
+        boolean schedule;
+        CompletableFuture<Void> attempt = new CompletableFuture<>();
+        CompletableFuture<Void> replaced = null;
+        synchronized (this) {
+            LinkedHashMap<String, Work> items = pending.get(key);
+            // a key with waiting work is either running or already ready
+            schedule = items == null && !active.contains(key);
+            if (items == null) {
+                items = new LinkedHashMap<>();
+                pending.put(key, items);
+            }
+            Long previous = sequences.put(failureKey(key, itemKey), ++lastSequence);
+            if (items.put(itemKey, work) != null) {
+                collapsed++;
+                replaced = previous != null ? attempts.remove(previous) : null;
+            }
+            attempts.put(lastSequence, attempt);
+            // newer work starts over
+            failures.remove(failureKey(key, itemKey));
+            if (schedule) {
+                ready.addLast(key);
+            }
+        }
+        if (replaced != null) {
+            replaced.complete(null);
+        }
+        if (schedule) {
+            dispatch();
+        }
+        return attempt;
+    }
+
+    private void dispatch() {
+        try {
+            workers.execute(this::runNext);
+        } catch (RejectedExecutionException e) {
+            logger.log(Level.FINE, "Work queue shut down", e);
+        }
+    }
+
+    private void runNext() {
+        String key;
+        String itemKey;
+        Work work;
+        long sequence;
+        synchronized (this) {
+            key = ready.pollFirst();
+            if (key == null) {
+                return;
+            }
+            LinkedHashMap<String, Work> items = pending.get(key);
+            Iterator<Map.Entry<String, Work>> iter = items.entrySet().iterator();
+            Map.Entry<String, Work> next = iter.next();
+            iter.remove();
+            if (items.isEmpty()) {
+                pending.remove(key);
+            }
+            itemKey = next.getKey();
+            work = next.getValue();
+            sequence = sequences.getOrDefault(failureKey(key, itemKey), 0L);
+            active.add(key);
+        }
+        CompletableFuture<Void> attempt;
+        try {
+            work.run();
+            synchronized (this) {
+                failures.remove(failureKey(key, itemKey));
+                sequences.remove(failureKey(key, itemKey), sequence);
+                attempt = attempts.remove(sequence);
+            }
+            if (attempt != null) {
+                attempt.complete(null);
+            }
+        } catch (Exception | LinkageError e) {
+            synchronized (this) {
+                attempt = attempts.remove(sequence);
+            }
+            if (attempt != null) {
+                attempt.completeExceptionally(e);
+            }
+            retry(key, itemKey, work, sequence, e);
+        } finally {
+            boolean more;
+            synchronized (this) {
+                active.remove(key);
+                more = pending.containsKey(key);
+                if (more) {
+                    ready.addLast(key);
+                }
+            }
+            if (more) {
+                dispatch();
+            }
+        }
+    }
+
+    private void retry(String key, String itemKey, Work work, long sequence, Throwable cause) {
+        int attempt;
+        synchronized (this) {
+            String failureKey = failureKey(key, itemKey);
+            attempt = failures.merge(failureKey, 1, Integer::sum);
+            if (attempt > maxRetries) {
+                failures.remove(failureKey);
+                sequences.remove(failureKey, sequence);
+                dropped++;
+                logger.log(Level.WARNING, "Giving up on " + itemKey + " after " + maxRetries + " retries", cause);
+                return;
+            }
+            retried++;
+        }
+        long delay = Math.min(maxRetryDelayMs, baseRetryDelayMs << Math.min(attempt - 1, 30));
+        logger.log(Level.INFO, "Failed to process " + itemKey + ", retrying in " + delay + "ms", cause);
+        try {
+            retryTimer.schedule(() -> resubmit(key, itemKey, work, sequence), delay, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            logger.log(Level.FINE, "Cannot schedule retry of " + itemKey, e);
+            synchronized (this) {
+                sequences.remove(failureKey(key, itemKey), sequence);
+            }
+        }
+    }
+
+    private void resubmit(String key, String itemKey, Work work, long sequence) {
+        boolean schedule;
+        synchronized (this) {
+            Long latest = sequences.get(failureKey(key, itemKey));
+            if (latest == null || latest != sequence) {
+                // newer work for the item is waiting or already ran
+                return;
+            }
+            LinkedHashMap<String, Work> items = pending.get(key);
+            schedule = items == null && !active.contains(key);
+            if (items == null) {
+                items = new LinkedHashMap<>();
+                pending.put(key, items);
+            }
+            items.put(itemKey, work);
+            if (schedule) {
+                ready.addLast(key);
+            }
+        }
+        if (schedule) {
+            dispatch();
+        }
+    }
+
+    private static String failureKey(String key, String itemKey) {
+        return key + "\n" + itemKey;
+    }
+
+    /**
+     * @return the number of work items waiting
+     */
+    public synchronized int getQueueDepth() {
+        int depth = 0;
+        for (LinkedHashMap<String, Work> items : pending.values()) {
+            depth += items.size();
+        }
+        return depth;
+    }
+
+    /**
+     * @return the number of work items replaced by newer work before they ran
+     */
+    public synchronized long getCollapsedCount() {
+        return collapsed;
+    }
+
+    public synchronized long getRetriedCount() {
+        return retried;
+    }
+
+    public synchronized long getDroppedCount() {
+        return dropped;
+    }
+
+    public void shutdown() {
+        workers.shutdown();
+    }
+}
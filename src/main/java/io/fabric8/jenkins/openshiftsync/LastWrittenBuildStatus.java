@@ -0,0 +1,157 @@
+/**
+ * Copyright (C) 2016 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.fabric8.jenkins.openshiftsync;
+
+import static io.fabric8.jenkins.openshiftsync.BuildPhases.CANCELLED;
+import static io.fabric8.jenkins.openshiftsync.BuildPhases.COMPLETE;
+import static io.fabric8.jenkins.openshiftsync.BuildPhases.ERROR;
+import static io.fabric8.jenkins.openshiftsync.BuildPhases.FAILED;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * The status fields this plugin last wrote to an OpenShift Build. Used to
+ * reduce a {@link BuildStatusUpdate} to the fields which actually changed and
+ * to render those as a JSON merge patch, so that unchanged Builds are not
+ * written at all.
+ */
+public class LastWrittenBuildStatus {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final Map<String, String> annotations;
+    private final String phase;
+    private final String startTimestamp;
+    private final String completionTimestamp;
+
+    private LastWrittenBuildStatus(Map<String, String> annotations, String phase, String startTimestamp,
+            String completionTimestamp) {
+        this.annotations = annotations;
+        this.phase = phase;
+        this.startTimestamp = startTimestamp;
+        this.completionTimestamp = completionTimestamp;
+    }
+
+    /**
+     * Reduces the given update to the fields which differ from what was last
+     * written. With no previous state everything in the update is kept.
+     *
+     * @param last   the state last written to the Build, may be null
+     * @param update the requested update
+     * @return the changed fields, or null if the update would not change anything
+     */
+    public static BuildStatusUpdate diff(LastWrittenBuildStatus last, BuildStatusUpdate update) {
+        if (last == null) {
+            return update;
+        }
+        Map<String, String> changed = new HashMap<>();
+        for (Map.Entry<String, String> entry : update.getAnnotations().entrySet()) {
+            String key = entry.getKey();
+            if (!last.annotations.containsKey(key) || !Objects.equals(last.annotations.get(key), entry.getValue())) {
+                changed.put(key, entry.getValue());
+            }
+        }
+        Set<String> removed = new HashSet<>();
+        for (String key : update.getRemovedAnnotations()) {
+            if (last.annotations.containsKey(key)) {
+                removed.add(key);
+            }
+        }
+        String phase = changedValue(last.phase, update.getPhase());
+        String startTimestamp = changedValue(last.startTimestamp, update.getStartTimestamp());
+        String completionTimestamp = changedValue(last.completionTimestamp, update.getCompletionTimestamp());
+        if (changed.isEmpty() && removed.isEmpty() && phase == null && startTimestamp == null
+                && completionTimestamp == null) {
+            return null;
+        }
+        return new BuildStatusUpdate(update.getNamespace(), update.getName(), update.getUid(), changed, removed, phase,
+                startTimestamp, completionTimestamp, null);
+    }
+
+    private static String changedValue(String last, String requested) {
+        return requested != null && !requested.equals(last) ? requested : null;
+    }
+
+    /**
+     * @param last    the state before the write, may be null
+     * @param written the fields which were written
+     * @return the state of the Build after the write
+     */
+    public static LastWrittenBuildStatus apply(LastWrittenBuildStatus last, BuildStatusUpdate written) {
+        Map<String, String> annotations = last != null ? new HashMap<>(last.annotations) : new HashMap<>();
+        for (String key : written.getRemovedAnnotations()) {
+            annotations.remove(key);
+        }
+        annotations.putAll(written.getAnnotations());
+        return new LastWrittenBuildStatus(annotations,
+                written.getPhase() != null ? written.getPhase() : last != null ? last.phase : null,
+                written.getStartTimestamp() != null ? written.getStartTimestamp()
+                        : last != null ? last.startTimestamp : null,
+                written.getCompletionTimestamp() != null ? written.getCompletionTimestamp()
+                        : last != null ? last.completionTimestamp : null);
+    }
+
+    /**
+     * Renders the given update as a JSON merge patch (RFC 7386) for a Build.
+     * Removed annotations are set to null.
+     */
+    public static String toMergePatch(BuildStatusUpdate update) throws JsonProcessingException {
+        ObjectNode patch = MAPPER.createObjectNode();
+        if (!update.getAnnotations().isEmpty() || !update.getRemovedAnnotations().isEmpty()) {
+            ObjectNode annotations = patch.putObject("metadata").putObject("annotations");
+            for (String key : update.getRemovedAnnotations()) {
+                annotations.putNull(key);
+            }
+            for (Map.Entry<String, String> entry : update.getAnnotations().entrySet()) {
+                annotations.put(entry.getKey(), entry.getValue());
+            }
+        }
+        if (update.getPhase() != null || update.getStartTimestamp() != null
+                || update.getCompletionTimestamp() != null) {
+            ObjectNode status = patch.putObject("status");
+            if (update.getPhase() != null) {
+                status.put("phase", update.getPhase());
+            }
+            if (update.getStartTimestamp() != null) {
+                status.put("startTimestamp", update.getStartTimestamp());
+            }
+            if (update.getCompletionTimestamp() != null) {
+                status.put("completionTimestamp", update.getCompletionTimestamp());
+            }
+        }
+        return MAPPER.writeValueAsString(patch);
+    }
+
+    public boolean isTerminal() {
+        return COMPLETE.equals(phase) || FAILED.equals(phase) || ERROR.equals(phase) || CANCELLED.equals(phase);
+    }
+
+    public String getPhase() {
+        return phase;
+    }
+
+    public Map<String, String> getAnnotations() {
+        return annotations;
+    }
+}
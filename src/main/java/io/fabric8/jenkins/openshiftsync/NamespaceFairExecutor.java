@@ -0,0 +1,239 @@
+/**
+ * Copyright (C) 2016 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.fabric8.jenkins.openshiftsync;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
+
+/**
+ * Bounded pool of workers running tasks for OpenShift namespaces.
+ *
+ * Tasks are queued per namespace and the workers take them round-robin across
+ * the namespaces with pending work. A namespace can only have a limited number
+ * of tasks running at once, so a namespace whose API calls are slow, e.g.
+ * because it is throttled, cannot hold every worker and never holds up the
+ * tasks of other namespaces. A task key which is already queued is not queued
+ * again, and a task is never run concurrently with a task of the same key: if
+ * the key is running, the new task waits for it to finish.
+ *
+ * The lag of a namespace is how long its oldest queued task has been waiting.
+ */
+public class NamespaceFairExecutor {
+    private static final Logger logger = Logger.getLogger(NamespaceFairExecutor.class.getName());
+
+    private final ExecutorService workers;
+    private final int maxPerNamespace;
+
+    // guarded by this
+    private final Map<String, Deque<Task>> queues = new HashMap<>();
+    private final Deque<String> ring = new ArrayDeque<>();
+    private final Set<String> queuedKeys = new HashSet<>();
+    private final Set<String> runningKeys = new HashSet<>();
+    // tasks submitted while a task of the same key was running
+    private final Map<String, Task> waitingKeys = new HashMap<>();
+    private final Map<String, Integer> running = new HashMap<>();
+    private final Map<String, Long> maxLag = new HashMap<>();
+
+    /**
+     * @param threads         the number of workers
+     * @param maxPerNamespace the number of tasks of a single namespace which can
+     *                        run at once, 0 or less for all workers but one
+     * @param name            the name of the worker threads
+     */
+    public NamespaceFairExecutor(int threads, int maxPerNamespace, String name) {
+        threads = Math.max(1, threads);
+        this.workers = Executors.newFixedThreadPool(threads, new NamingThreadFactory(new DaemonThreadFactory(), name));
+        this.maxPerNamespace = maxPerNamespace > 0 ? maxPerNamespace : Math.max(1, threads - 1);
+    }
+
+    /**
+     * Queues a task for the given namespace.
+     *
+     * @param namespace the namespace the task works on
+     * @param key       identifies the task, a key still queued is not queued
+     *                  again
+     * @param task      the task
+     * @return false if a task with the same key was already queued
+     * @throws RejectedExecutionException if the executor was shut down
+     */
+    public boolean submit(String namespace, String key, Runnable task) {
+        synchronized (this) {
+            if (!queuedKeys.add(key)) {
+                return false;
+            }
+            Task t = new Task(namespace, key, task, System.currentTimeMillis());
+            if (runningKeys.contains(key)) {
+                // queued once the running one is done
+                waitingKeys.put(key, t);
+                return true;
+            }
+            enqueue(t);
+        }
+        try {
+            // the worker picks whichever task is next in round-robin order,
+            // not necessarily this one
+            workers.execute(this::runNext);
+        } catch (RejectedExecutionException e) {
+            synchronized (this) {
+                Deque<Task> queue = queues.get(namespace);
+                if (queue != null) {
+                    queue.removeIf(t -> t.key.equals(key));
+                    if (queue.isEmpty()) {
+                        queues.remove(namespace);
+                        ring.remove(namespace);
+                    }
+                }
+                waitingKeys.remove(key);
+                queuedKeys.remove(key);
+            }
+            throw e;
+        }
+        return true;
+    }
+
+    // guarded by this
+    private void enqueue(Task task) {
+        Deque<Task> queue = queues.get(task.namespace);
+        if (queue == null) {
+            queue = new ArrayDeque<>();
+            queues.put(task.namespace, queue);
+            ring.addLast(task.namespace);
+        }
+        queue.addLast(task);
+    }
+
+    private void runNext() {
+        // a task skipped because its namespace was at its limit is picked up
+        // by the worker finishing one of that namespace's running tasks
+        Task task;
+        while ((task = next()) != null) {
+            try {
+                task.runnable.run();
+            } catch (RuntimeException e) {
+                logger.log(Level.WARNING, "Task " + task.key + " for namespace " + task.namespace + " failed", e);
+            } finally {
+                done(task);
+            }
+        }
+    }
+
+    private synchronized Task next() {
+        Task task = null;
+        for (int i = ring.size(); i > 0 && task == null; i--) {
+            String namespace = ring.pollFirst();
+            Deque<Task> queue = queues.get(namespace);
+            if (running.getOrDefault(namespace, 0) >= maxPerNamespace) {
+                ring.addLast(namespace);
+                continue;
+            }
+            task = queue.pollFirst();
+            if (queue.isEmpty()) {
+                queues.remove(namespace);
+            } else {
+                ring.addLast(namespace);
+            }
+        }
+        if (task == null) {
+            return null;
+        }
+        String namespace = task.namespace;
+        queuedKeys.remove(task.key);
+        runningKeys.add(task.key);
+        running.merge(namespace, 1, Integer::sum);
+        long lag = System.currentTimeMillis() - task.queuedAt;
+        Long max = maxLag.get(namespace);
+        if (max == null || lag > max) {
+            maxLag.put(namespace, lag);
+        }
+        return task;
+    }
+
+    private synchronized void done(Task task) {
+        runningKeys.remove(task.key);
+        if (running.merge(task.namespace, -1, Integer::sum) <= 0) {
+            running.remove(task.namespace);
+        }
+        Task waiting = waitingKeys.remove(task.key);
+        if (waiting != null) {
+            enqueue(waiting);
+        }
+    }
+
+    /**
+     * @return for each namespace with queued tasks, how long in milliseconds its
+     *         oldest task has been waiting
+     */
+    public synchronized Map<String, Long> getLagByNamespace() {
+        long now = System.currentTimeMillis();
+        Map<String, Long> lags = new TreeMap<>();
+        for (Map.Entry<String, Deque<Task>> entry : queues.entrySet()) {
+            Task oldest = entry.getValue().peekFirst();
+            if (oldest != null) {
+                lags.put(entry.getKey(), now - oldest.queuedAt);
+            }
+        }
+        for (Task waiting : waitingKeys.values()) {
+            Long lag = lags.get(waiting.namespace);
+            if (lag == null || now - waiting.queuedAt > lag) {
+                lags.put(waiting.namespace, now - waiting.queuedAt);
+            }
+        }
+        return lags;
+    }
+
+    /**
+     * @return for each namespace, the longest time in milliseconds a task waited
+     *         before a worker picked it up
+     */
+    public synchronized Map<String, Long> getMaxLagByNamespace() {
+        return new TreeMap<>(maxLag);
+    }
+
+    public synchronized int getQueueDepth() {
+        return queuedKeys.size();
+    }
+
+    public void shutdown() {
+        workers.shutdown();
+    }
+
+    private static class Task {
+        private final String namespace;
+        private final String key;
+        private final Runnable runnable;
+        private final long queuedAt;
+
+        Task(String namespace, String key, Runnable runnable, long queuedAt) {
+            this.namespace = namespace;
+            this.key = key;
+            this.runnable = runnable;
+            this.queuedAt = queuedAt;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+/**
+ * Copyright (C) 2016 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.fabric8.jenkins.openshiftsync;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.logging.Logger;
+
+import hudson.Extension;
+import hudson.model.Item;
+import hudson.model.ItemGroup;
+import hudson.model.listeners.ItemListener;
+
+/**
+ * Cache of the item groups jobs are created in, by full name, so that
+ * resolving the parent of a job does not look it up every time.
+ *
+ * A missing folder is resolved, and created, by a single caller while others
+ * asking for the same name wait for its result. Entries are dropped when the
+ * folder, or one of its ancestors, is deleted or moved, and all of them when
+ * Jenkins reloads its items.
+ */
+@Extension
+public class NamespaceFolderCache extends ItemListener {
+    private static final Logger logger = Logger.getLogger(NamespaceFolderCache.class.getName());
+
+    private static final ConcurrentHashMap<String, CompletableFuture<ItemGroup>> folders = new ConcurrentHashMap<>();
+
+    /**
+     * @param fullName the full name of the item group
+     * @param resolver looks up or creates the item group, returning null when
+     *                 there is none; only called by one caller at a time for
+     *                 a given name
+     * @return the item group, or null if it could not be resolved
+     */
+    public static ItemGroup get(String fullName, Function<String, ItemGroup> resolver) {
+        CompletableFuture<ItemGroup> folder = folders.get(fullName);
+        if (folder == null) {
+            CompletableFuture<ItemGroup> resolving = new CompletableFuture<>();
+            folder = folders.putIfAbsent(fullName, resolving);
+            if (folder == null) {
+                folder = resolving;
+                try {
+                    ItemGroup group = resolver.apply(fullName);
+                    if (group == null) {
+                        // nothing to cache, let the next caller try again
+                        folders.remove(fullName, resolving);
+                    }
+                    resolving.complete(group);
+                } catch (RuntimeException e) {
+                    folders.remove(fullName, resolving);
+                    resolving.completeExceptionally(e);
+                    throw e;
+                }
+            }
+        }
+        try {
+            return folder.join();
+        } catch (CompletionException e) {
+            logger.fine("Failed to resolve folder " + fullName + ": " + e.getCause());
+            return null;
+        }
+    }
+
+    static void invalidate(String fullName) {
+        String prefix = fullName + "/";
+        folders.keySet().removeIf(name -> name.equals(fullName) || name.startsWith(prefix));
+    }
+
+    @Override
+    public void onDeleted(Item item) {
+        invalidate(item.getFullName());
+    }
+
+    @Override
+    public void onLocationChanged(Item item, String oldFullName, String newFullName) {
+        invalidate(oldFullName);
+    }
+
+    @Override
+    public void onLoaded() {
+        folders.clear();
+    }
+}
@@ -0,0 +1,116 @@
+/**
+ * Copyright (C) 2016 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.fabric8.jenkins.openshiftsync;
+
+import static io.fabric8.jenkins.openshiftsync.Constants.OPENSHIFT_ANNOTATIONS_BUILD_NUMBER;
+import static io.fabric8.jenkins.openshiftsync.Constants.OPENSHIFT_LABELS_BUILD_CONFIG_NAME;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+import io.fabric8.kubernetes.api.model.ObjectMeta;
+import io.fabric8.kubernetes.client.informers.SharedIndexInformer;
+import io.fabric8.openshift.api.model.Build;
+
+/**
+ * Builds in phase New, per BuildConfig.
+ *
+ * An index of the Build informer caches, so that picking the next Build to run
+ * for the Serial and SerialLatestOnly run policies is a lookup rather than a
+ * list call against the API server. Being part of the cache, the index is
+ * complete as soon as the informer has synced, before the informer event
+ * handlers have seen the initial list.
+ */
+public class NewBuildIndex {
+    private static final Logger LOGGER = Logger.getLogger(NewBuildIndex.class.getName());
+
+    static final String INDEX = "newByBuildConfig";
+
+    private NewBuildIndex() {
+    }
+
+    /**
+     * Adds the index to the given informer, which must not have been started
+     * yet.
+     */
+    public static void register(SharedIndexInformer<Build> informer) {
+        informer.addIndexers(Collections.singletonMap(INDEX, NewBuildIndex::indexKeysOf));
+    }
+
+    /**
+     * @return the namespace/BuildConfig key the Build is indexed under if it is
+     *         in phase New and belongs to a BuildConfig, nothing otherwise
+     */
+    static List<String> indexKeysOf(Build build) {
+        if (build.getMetadata() == null || build.getStatus() == null
+                || !BuildPhases.NEW.equals(build.getStatus().getPhase())) {
+            return Collections.emptyList();
+        }
+        String bcName = buildConfigNameOf(build);
+        if (bcName != null && buildNumberOf(build) == Long.MAX_VALUE) {
+            // warned about once per change of the Build rather than each time
+            // the Builds are ordered
+            ObjectMeta meta = build.getMetadata();
+            LOGGER.warning("Build " + meta.getNamespace() + "/" + meta.getName() + ", has bad annotations: "
+                    + meta.getAnnotations());
+        }
+        return bcName != null ? Collections.singletonList(keyOf(build.getMetadata().getNamespace(), bcName))
+                : Collections.<String>emptyList();
+    }
+
+    private static String keyOf(String namespace, String bcName) {
+        return namespace + "/" + bcName;
+    }
+
+    /**
+     * Only meaningful once {@link InformerLister#hasSynced(String)} holds for
+     * the namespace of {@link InformerLister#BUILDS}.
+     *
+     * @param namespace the namespace of the BuildConfig
+     * @param bcName    the name of the BuildConfig
+     * @return the Builds of the BuildConfig still in phase New, in no
+     *         particular order
+     */
+    public static List<Build> getNewBuilds(String namespace, String bcName) {
+        return InformerLister.BUILDS.byIndex(namespace, INDEX, keyOf(namespace, bcName));
+    }
+
+    private static String buildConfigNameOf(Build build) {
+        Map<String, String> labels = build.getMetadata().getLabels();
+        return labels != null ? labels.get(OPENSHIFT_LABELS_BUILD_CONFIG_NAME) : null;
+    }
+
+    /**
+     * @param build a Build
+     * @return the parsed build number annotation of the Build, or
+     *         {@link Long#MAX_VALUE} when it is missing or not a number so that
+     *         such Builds sort last
+     */
+    public static long buildNumberOf(Build build) {
+        Map<String, String> annotations = build.getMetadata().getAnnotations();
+        String number = annotations != null ? annotations.get(OPENSHIFT_ANNOTATIONS_BUILD_NUMBER) : null;
+        if (number != null) {
+            try {
+                return Long.parseLong(number);
+            } catch (NumberFormatException e) {
+                // fall through
+            }
+        }
+        return Long.MAX_VALUE;
+    }
+}
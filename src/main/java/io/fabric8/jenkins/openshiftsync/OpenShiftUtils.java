@@ -27,7 +27,6 @@ import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileReader;
 import java.io.IOException;
-import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
@@ -39,7 +38,6 @@ import java.util.logging.Logger;
 
 import org.apache.commons.lang.StringUtils;
 import org.apache.commons.lang.builder.ReflectionToStringBuilder;
-import org.apache.tools.ant.filters.StringInputStream;
 import org.joda.time.DateTime;
 import org.joda.time.format.DateTimeFormatter;
 import org.joda.time.format.ISODateTimeFormat;
@@ -53,18 +51,17 @@ import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
 import hudson.BulkChange;
 import hudson.model.Item;
 import hudson.model.ItemGroup;
-import hudson.util.XStream2;
+import io.fabric8.jenkins.openshiftsync.ApiRateLimiter.Priority;
 import io.fabric8.kubernetes.api.model.HasMetadata;
 import io.fabric8.kubernetes.api.model.ObjectMeta;
 import io.fabric8.kubernetes.api.model.ReplicationController;
 import io.fabric8.kubernetes.api.model.ReplicationControllerStatus;
 import io.fabric8.kubernetes.api.model.Service;
 import io.fabric8.kubernetes.api.model.ServiceSpec;
-import io.fabric8.kubernetes.client.Config;
 import io.fabric8.kubernetes.client.Version;
 import io.fabric8.kubernetes.client.informers.SharedInformerFactory;
+import io.fabric8.kubernetes.client.utils.HttpClientUtils;
 import io.fabric8.openshift.api.model.Build;
-import io.fabric8.openshift.api.model.BuildBuilder;
 import io.fabric8.openshift.api.model.BuildConfig;
 import io.fabric8.openshift.api.model.BuildConfigSpec;
 import io.fabric8.openshift.api.model.BuildSource;
@@ -75,9 +72,11 @@ import io.fabric8.openshift.api.model.RouteList;
 import io.fabric8.openshift.api.model.RouteSpec;
 import io.fabric8.openshift.client.DefaultOpenShiftClient;
 import io.fabric8.openshift.client.OpenShiftClient;
+import io.fabric8.openshift.client.OpenShiftConfig;
 import io.fabric8.openshift.client.OpenShiftConfigBuilder;
 import jenkins.model.Jenkins;
 import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
 
 /**
  */
@@ -141,12 +140,16 @@ public class OpenShiftUtils {
         if (serverUrl != null && !serverUrl.isEmpty()) {
             configBuilder.withMasterUrl(serverUrl);
         }
-        Config config = configBuilder.build();
+        OpenShiftConfig config = configBuilder.build();
         logger.log(INFO, "Current OpenShift Client Configuration: " + ReflectionToStringBuilder.toString(config));
         
         String version = JENKINS_INSTANCE.getPluginManager().getPlugin("openshift-sync").getVersion();
         config.setUserAgent("openshift-sync-plugin-" + version + "/fabric8-" + Version.clientVersion());
-        openShiftClient = new DefaultOpenShiftClient(config);
+        // every call goes through the rate limiter; the base HTTP client is
+        // not closed, the derived one shares its connection pool and dispatcher
+        OkHttpClient httpClient = HttpClientUtils.createHttpClient(config).newBuilder()
+                .addInterceptor(ApiRateLimiter.get()).build();
+        openShiftClient = new DefaultOpenShiftClient(httpClient, config);
         logger.log(INFO, "New OpenShift client initialized: " + openShiftClient);
 
         DefaultOpenShiftClient defClient = (DefaultOpenShiftClient) openShiftClient;
@@ -311,38 +314,56 @@ public class OpenShiftUtils {
         int idx = fullName.lastIndexOf('/');
         if (idx > 0) {
             String parentFullName = fullName.substring(0, idx);
-            Item parent = activeJenkins.getItemByFullName(parentFullName);
-            if (parent instanceof ItemGroup) {
-                return (ItemGroup) parent;
-            } else if (parentFullName.equals(namespace)) {
+            ItemGroup parent = NamespaceFolderCache.get(parentFullName,
+                    name -> resolveParent(activeJenkins, name, namespace));
+            if (parent != null) {
+                return parent;
+            }
+        }
+        return activeJenkins;
+    }
+
+    private static ItemGroup resolveParent(Jenkins activeJenkins, String parentFullName, String namespace) {
+        Item parent = activeJenkins.getItemByFullName(parentFullName);
+        if (parent instanceof ItemGroup) {
+            return (ItemGroup) parent;
+        } else if (parentFullName.equals(namespace)) {
 
-                // lets lazily create a new folder for this namespace parent
-                Folder folder = new Folder(activeJenkins, namespace);
+            // lets lazily create a new folder for this namespace parent
+            Folder folder = new Folder(activeJenkins, namespace);
+            ItemGroup created;
+            boolean deferred;
+            BulkChange bk = new BulkChange(folder);
+            try {
                 try {
                     folder.setDescription("Folder for the OpenShift project: " + namespace);
                 } catch (IOException e) {
                     // ignore
                 }
-                BulkChange bk = new BulkChange(folder);
-                InputStream jobStream = new StringInputStream(new XStream2().toXML(folder));
-                try {
-                    activeJenkins.createProjectFromXML(namespace, jobStream).save();
-                } catch (IOException e) {
-                    logger.warning("Failed to create the Folder: " + namespace);
-                }
-                try {
+                created = JenkinsUtils.addItem(activeJenkins, namespace, folder);
+                // a running bootstrap saves and announces its folders once
+                // it is done
+                deferred = created == folder && BuildConfigBootstrap.deferFolder(folder);
+                if (!deferred) {
                     bk.commit();
-                } catch (IOException e) {
-                    logger.warning("Failed to commit toe BulkChange for the Folder: " + namespace);
                 }
-                // lets look it up again to be sure
+            } catch (IOException e) {
+                logger.warning("Failed to create the Folder: " + namespace);
+                return null;
+            } catch (IllegalArgumentException e) {
+                // created by someone else in the meantime
                 parent = activeJenkins.getItemByFullName(namespace);
-                if (parent instanceof ItemGroup) {
-                    return (ItemGroup) parent;
-                }
+                return parent instanceof ItemGroup ? (ItemGroup) parent : null;
+            } finally {
+                bk.abort();
+            }
+            // listeners see the folder once it is saved
+            if (created == folder && !deferred) {
+                JenkinsUtils.fireItemCreated(folder);
             }
+            return created;
         }
-        return activeJenkins;
+        return null;
     }
 
     /**
@@ -415,18 +436,12 @@ public class OpenShiftUtils {
             String namespace, String serviceName) {
         if (namespace != null && serviceName != null) {
             try {
-                RouteList routes = openShiftClient.routes().inNamespace(namespace).list();
+                RouteList routes = ApiRateLimiter.withPriority(Priority.STATUS,
+                        () -> openShiftClient.routes().inNamespace(namespace).list());
                 for (Route route : routes.getItems()) {
-                    RouteSpec spec = route.getSpec();
-                    if (spec != null && spec.getTo() != null && "Service".equalsIgnoreCase(spec.getTo().getKind())
-                            && serviceName.equalsIgnoreCase(spec.getTo().getName())) {
-                        String host = spec.getHost();
-                        if (host != null && host.length() > 0) {
-                            if (spec.getTls() != null) {
-                                return "https://" + host;
-                            }
-                            return "http://" + host;
-                        }
+                    String url = getRouteUrl(route, serviceName);
+                    if (url != null) {
+                        return url;
                     }
                 }
             } catch (Exception e) {
@@ -435,15 +450,11 @@ public class OpenShiftUtils {
             }
             // lets try the portalIP instead
             try {
-                Service service = openShiftClient.services().inNamespace(namespace).withName(serviceName).get();
-                if (service != null) {
-                    ServiceSpec spec = service.getSpec();
-                    if (spec != null) {
-                        String host = spec.getClusterIP();
-                        if (host != null && host.length() > 0) {
-                            return defaultProtocolText + host;
-                        }
-                    }
+                Service service = ApiRateLimiter.withPriority(Priority.STATUS,
+                        () -> openShiftClient.services().inNamespace(namespace).withName(serviceName).get());
+                String url = getServiceUrl(service, defaultProtocolText);
+                if (url != null) {
+                    return url;
                 }
             } catch (Exception e) {
                 logger.log(Level.WARNING,
@@ -455,6 +466,61 @@ public class OpenShiftUtils {
         return defaultProtocolText + serviceName;
     }
 
+    /**
+     * @param route       the Route to check
+     * @param serviceName the name of the service the Route should point to
+     * @return the URL the Route exposes the service at, or null if the Route does
+     *         not point to the service or has no host
+     */
+    public static String getRouteUrl(Route route, String serviceName) {
+        RouteSpec spec = route != null ? route.getSpec() : null;
+        if (spec != null && spec.getTo() != null && "Service".equalsIgnoreCase(spec.getTo().getKind())
+                && serviceName.equalsIgnoreCase(spec.getTo().getName())) {
+            String host = spec.getHost();
+            if (host != null && host.length() > 0) {
+                if (spec.getTls() != null) {
+                    return "https://" + host;
+                }
+                return "http://" + host;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @param service             the Service, may be null
+     * @param defaultProtocolText the protocol to use for the cluster IP
+     * @return the cluster IP based URL of the service, or null if it has none
+     */
+    public static String getServiceUrl(Service service, String defaultProtocolText) {
+        if (service != null) {
+            ServiceSpec spec = service.getSpec();
+            if (spec != null) {
+                String host = spec.getClusterIP();
+                if (host != null && host.length() > 0) {
+                    return defaultProtocolText + host;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Looks up a BuildConfig in the informer cache, falling back to the API
+     * server while the cache of the namespace has not synced. The result may be
+     * shared with the cache and must not be modified.
+     *
+     * @param namespace the namespace of the BuildConfig
+     * @param name      the name of the BuildConfig
+     * @return the BuildConfig, or null if it does not exist
+     */
+    public static BuildConfig getBuildConfig(String namespace, String name) {
+        if (InformerLister.BUILD_CONFIGS.hasSynced(namespace)) {
+            return InformerLister.BUILD_CONFIGS.get(namespace, name);
+        }
+        return getAuthenticatedOpenShiftClient().buildConfigs().inNamespace(namespace).withName(name).get();
+    }
+
     /**
      * Calculates the external URL to access Jenkins
      *
@@ -473,7 +539,7 @@ public class OpenShiftUtils {
         // the service/route
         // TODO we will eventually make the service name configurable, with the
         // default of "jenkins"
-        return getExternalServiceUrl(openShiftClient, "http://", namespace, "jenkins");
+        return JenkinsUrlResolver.resolve(openShiftClient, namespace);
     }
 
     public static String getNamespacefromPodInputs() {
@@ -513,8 +579,8 @@ public class OpenShiftUtils {
         String name = build.getMetadata().getName();
         logger.log(FINE, "setting build to {0} in namespace {1}/{2}", new Object[] { phase, ns, name });
 
-        BuildBuilder builder = new BuildBuilder(build).editStatus().withPhase(phase).endStatus();
-        getAuthenticatedOpenShiftClient().builds().inNamespace(ns).withName(name).edit(b -> builder.build());
+        BuildStatusWriteQueue.get()
+                .submit(BuildStatusUpdate.phaseUpdate(ns, name, build.getMetadata().getUid(), phase));
     }
 
     /**
@@ -0,0 +1,166 @@
+/**
+ * Copyright (C) 2016 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.fabric8.jenkins.openshiftsync;
+
+import static io.fabric8.jenkins.openshiftsync.Constants.OPENSHIFT_LABELS_BUILD_CONFIG_NAME;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Logger;
+
+import io.fabric8.openshift.api.model.Build;
+
+/**
+ * Builds whose watch events arrived before the event of their BuildConfig,
+ * indexed by namespace and BuildConfig name so that a BuildConfig event only
+ * looks at its own Builds.
+ *
+ * Entries expire after a while and the oldest entries are evicted beyond a
+ * maximum size, so that Builds whose BuildConfig never shows up do not pile
+ * up.
+ */
+public class PendingBuilds {
+    private static final Logger logger = Logger.getLogger(PendingBuilds.class.getName());
+
+    private final long ttlMs;
+    private final int maxSize;
+
+    // guarded by this; in insertion order, i.e. oldest first
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>();
+    private final Map<String, Set<String>> byBuildConfig = new HashMap<>();
+
+    /**
+     * @param ttlMs   how long a Build is kept
+     * @param maxSize how many Builds are kept at most
+     */
+    public PendingBuilds(long ttlMs, int maxSize) {
+        this.ttlMs = ttlMs;
+        this.maxSize = maxSize;
+    }
+
+    public synchronized void add(Build build, long now) {
+        String key = keyOf(build);
+        removeKey(key);
+        String buildConfigKey = buildConfigKeyOf(build);
+        entries.put(key, new Entry(build, buildConfigKey, now));
+        byBuildConfig.computeIfAbsent(buildConfigKey, k -> new LinkedHashSet<>()).add(key);
+        expire(now);
+        while (entries.size() > maxSize) {
+            String eldest = entries.keySet().iterator().next();
+            logger.warning("Too many builds waiting for their BuildConfig, dropping " + eldest);
+            removeKey(eldest);
+        }
+    }
+
+    public synchronized void remove(Build build) {
+        removeKey(keyOf(build));
+    }
+
+    /**
+     * @return the Builds waiting for the given BuildConfig
+     */
+    public synchronized List<Build> get(String namespace, String buildConfigName, long now) {
+        expire(now);
+        Set<String> keys = byBuildConfig.get(namespace + "/" + buildConfigName);
+        List<Build> builds = new ArrayList<>();
+        if (keys != null) {
+            for (String key : keys) {
+                builds.add(entries.get(key).build);
+            }
+        }
+        return builds;
+    }
+
+    /**
+     * @return all waiting Builds
+     */
+    public synchronized List<Build> getAll(long now) {
+        expire(now);
+        List<Build> builds = new ArrayList<>(entries.size());
+        for (Entry entry : entries.values()) {
+            builds.add(entry.build);
+        }
+        return builds;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private void expire(long now) {
+        Iterator<Map.Entry<String, Entry>> iter = entries.entrySet().iterator();
+        while (iter.hasNext()) {
+            Map.Entry<String, Entry> next = iter.next();
+            if (now - next.getValue().addedAt < ttlMs) {
+                // the rest was added later
+                break;
+            }
+            logger.info("Build " + next.getKey() + " waited too long for its BuildConfig, dropping it");
+            iter.remove();
+            unindex(next.getKey(), next.getValue());
+        }
+    }
+
+    private void removeKey(String key) {
+        Entry entry = entries.remove(key);
+        if (entry != null) {
+            unindex(key, entry);
+        }
+    }
+
+    private void unindex(String key, Entry entry) {
+        Set<String> keys = byBuildConfig.get(entry.buildConfigKey);
+        if (keys != null) {
+            keys.remove(key);
+            if (keys.isEmpty()) {
+                byBuildConfig.remove(entry.buildConfigKey);
+            }
+        }
+    }
+
+    private static String keyOf(Build build) {
+        return build.getMetadata().getNamespace() + "/" + build.getMetadata().getName();
+    }
+
+    private static String buildConfigKeyOf(Build build) {
+        String name = null;
+        if (build.getStatus() != null && build.getStatus().getConfig() != null) {
+            name = build.getStatus().getConfig().getName();
+        }
+        if (name == null && build.getMetadata().getLabels() != null) {
+            name = build.getMetadata().getLabels().get(OPENSHIFT_LABELS_BUILD_CONFIG_NAME);
+        }
+        return build.getMetadata().getNamespace() + "/" + name;
+    }
+
+    private static class Entry {
+        private final Build build;
+        private final String buildConfigKey;
+        private final long addedAt;
+
+        Entry(Build build, String buildConfigKey, long addedAt) {
+            this.build = build;
+            this.buildConfigKey = buildConfigKey;
+            this.addedAt = addedAt;
+        }
+    }
+}
@@ -0,0 +1,193 @@
+/**
+ * Copyright (C) 2016 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.fabric8.jenkins.openshiftsync;
+
+import static java.util.logging.Level.FINE;
+import static java.util.logging.Level.WARNING;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+import hudson.init.Terminator;
+import hudson.model.Item;
+import hudson.model.Run;
+import hudson.model.Saveable;
+import hudson.security.ACL;
+import hudson.triggers.SafeTimerTask;
+import jenkins.model.Jenkins;
+import jenkins.util.Timer;
+
+/**
+ * Coalesces the saves of jobs, runs, credential stores and the global
+ * configuration done while syncing.
+ *
+ * Callers mark an object dirty instead of saving it. A background writer
+ * saves each dirty object once per window however many times it was marked
+ * in between, and whatever is still dirty is saved when Jenkins shuts down.
+ * With a window of 0 objects are saved right away by the caller.
+ */
+public class PersistenceService {
+    private static final Logger logger = Logger.getLogger(PersistenceService.class.getName());
+
+    private static final PersistenceService INSTANCE = new PersistenceService();
+
+    private final Set<Saveable> dirty = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean started = new AtomicBoolean(false);
+
+    private final AtomicLong marked = new AtomicLong();
+    private final AtomicLong saved = new AtomicLong();
+    private final AtomicLong avoided = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    PersistenceService() {
+    }
+
+    public static PersistenceService get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Schedules a save of the given object, merged with any save of it still
+     * pending.
+     *
+     * @param saveable the object to save
+     */
+    public void markDirty(Saveable saveable) {
+        markDirty(saveable, GlobalPluginConfiguration.get().getSaveCoalescingWindow());
+    }
+
+    // visible for tests
+    void markDirty(Saveable saveable, long window) {
+        marked.incrementAndGet();
+        if (window <= 0) {
+            save(saveable);
+            return;
+        }
+        if (!dirty.add(saveable)) {
+            avoided.incrementAndGet();
+            return;
+        }
+        checkStarted(window);
+    }
+
+    private void checkStarted(long window) {
+        if (started.compareAndSet(false, true)) {
+            Timer.get().scheduleWithFixedDelay(new SafeTimerTask() {
+                @Override
+                protected void doRun() throws Exception {
+                    flush();
+                }
+            }, window, window, TimeUnit.MILLISECONDS);
+            logger.info("Started OpenShift sync persistence writer flushing every " + window + "ms");
+        }
+    }
+
+    /**
+     * Drops a pending save, e.g. because the object is being deleted.
+     *
+     * @param saveable the object not to save
+     */
+    public void forget(Saveable saveable) {
+        dirty.remove(saveable);
+    }
+
+    /**
+     * Saves everything marked dirty so far.
+     */
+    public void flush() {
+        AtomicLong count = new AtomicLong();
+        ACL.impersonate(ACL.SYSTEM, () -> {
+            for (Saveable saveable : dirty) {
+                // remove first so that a mark during the save is not lost
+                if (dirty.remove(saveable)) {
+                    save(saveable);
+                    count.incrementAndGet();
+                }
+            }
+        });
+        if (count.get() > 0 && logger.isLoggable(FINE)) {
+            logger.fine("Flushed " + count + " saves; " + getStatistics());
+        }
+    }
+
+    private void save(Saveable saveable) {
+        if (isGone(saveable)) {
+            // saving would bring back the directory of a deleted item
+            logger.fine("Not saving " + saveable + " which was deleted");
+            return;
+        }
+        try {
+            saveable.save();
+            saved.incrementAndGet();
+        } catch (IOException | RuntimeException e) {
+            failed.incrementAndGet();
+            logger.log(WARNING, "Failed to save " + saveable, e);
+        }
+    }
+
+    private static boolean isGone(Saveable saveable) {
+        if (saveable instanceof Run) {
+            Run<?, ?> run = (Run<?, ?>) saveable;
+            return run.getParent().getBuildByNumber(run.getNumber()) != run;
+        }
+        if (saveable instanceof Item) {
+            Item item = (Item) saveable;
+            return Jenkins.getActiveInstance().getItemByFullName(item.getFullName()) != item;
+        }
+        return false;
+    }
+
+    @Terminator
+    public static void flushOnShutdown() {
+        INSTANCE.flush();
+    }
+
+    /**
+     * @return the number of objects waiting to be saved
+     */
+    public int getDirtyCount() {
+        return dirty.size();
+    }
+
+    public long getMarkedCount() {
+        return marked.get();
+    }
+
+    public long getSavedCount() {
+        return saved.get();
+    }
+
+    /**
+     * @return the number of saves merged into a save still pending
+     */
+    public long getAvoidedCount() {
+        return avoided.get();
+    }
+
+    public long getFailedCount() {
+        return failed.get();
+    }
+
+    public String getStatistics() {
+        return "dirty=" + getDirtyCount() + " marked=" + getMarkedCount() + " saved=" + getSavedCount()
+                + " avoided=" + getAvoidedCount() + " failed=" + getFailedCount();
+    }
+}
@@ -41,6 +41,7 @@ import static io.fabric8.jenkins.openshiftsync.BuildConfigToJobMap.removeJobWith
 import static io.fabric8.jenkins.openshiftsync.BuildConfigToJobMapper.updateBuildConfigFromJob;
 import static io.fabric8.jenkins.openshiftsync.Constants.OPENSHIFT_LABELS_BUILD_CONFIG_GIT_REPOSITORY_NAME;
 import static io.fabric8.jenkins.openshiftsync.OpenShiftUtils.getAuthenticatedOpenShiftClient;
+import static io.fabric8.jenkins.openshiftsync.OpenShiftUtils.getBuildConfig;
 import static io.fabric8.jenkins.openshiftsync.OpenShiftUtils.getOpenShiftClient;
 import static java.net.HttpURLConnection.HTTP_NOT_FOUND;
 
@@ -115,7 +116,7 @@ public class PipelineJobListener extends ItemListener {
 
                 String namespace = buildName.getNamespace();
                 String buildConfigName = buildName.getName();
-                BuildConfig buildConfig = getAuthenticatedOpenShiftClient().buildConfigs().inNamespace(namespace).withName(buildConfigName).get();
+                BuildConfig buildConfig = getBuildConfig(namespace, buildConfigName);
                 if (buildConfig != null) {
                     boolean generatedBySyncPlugin = false;
                     Map<String, String> annotations = buildConfig.getMetadata().getAnnotations();
@@ -229,7 +230,11 @@ public class PipelineJobListener extends ItemListener {
         boolean create = false;
         logger.info("Finding BuildConfig for namespace: " + buildConfigProjectProperty.getNamespace() + " name: " +
              buildConfigProjectProperty.getName());
-        BuildConfig jobBuildConfig = getAuthenticatedOpenShiftClient().buildConfigs().inNamespace(buildConfigProjectProperty.getNamespace()).withName(buildConfigProjectProperty.getName()).get();
+        BuildConfig jobBuildConfig = getBuildConfig(buildConfigProjectProperty.getNamespace(), buildConfigProjectProperty.getName());
+        if (jobBuildConfig != null) {
+            // updated below, don't touch the cached copy
+            jobBuildConfig = new BuildConfigBuilder(jobBuildConfig).build();
+        }
 
 
         if (jobBuildConfig == null){
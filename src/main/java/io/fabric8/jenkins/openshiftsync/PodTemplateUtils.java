@@ -99,14 +99,10 @@ public class PodTemplateUtils {
             }
             // now set new list back into cloud
             kubeCloud.setTemplates(list);
-            try {
-                // pedantic mvn:findbugs
-                Jenkins jenkins = Jenkins.getInstance();
-                if (jenkins != null)
-                    jenkins.save();
-            } catch (IOException e) {
-                LOGGER.log(Level.SEVERE, "removePodTemplate", e);
-            }
+            // pedantic mvn:findbugs
+            Jenkins jenkins = Jenkins.getInstance();
+            if (jenkins != null)
+                PersistenceService.get().markDirty(jenkins);
 
             if (LOGGER.isLoggable(Level.FINE)) {
                 LOGGER.fine("PodTemplates now:");
@@ -152,14 +148,10 @@ public class PodTemplateUtils {
         if (kubeCloud != null) {
             LOGGER.info("Adding PodTemplate: " + podTemplate.getName());
             kubeCloud.addTemplate(podTemplate);
-            try {
-                // pedantic mvn:findbugs
-                Jenkins jenkins = Jenkins.getInstance();
-                if (jenkins != null)
-                    jenkins.save();
-            } catch (IOException e) {
-                LOGGER.log(Level.SEVERE, "addPodTemplate", e);
-            }
+            // pedantic mvn:findbugs
+            Jenkins jenkins = Jenkins.getInstance();
+            if (jenkins != null)
+                PersistenceService.get().markDirty(jenkins);
         }
     }
 
@@ -0,0 +1,149 @@
+/**
+ * Copyright (C) 2016 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.fabric8.jenkins.openshiftsync;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import hudson.Extension;
+import hudson.ExtensionList;
+import hudson.model.Cause;
+import hudson.model.Queue;
+import hudson.model.queue.QueueListener;
+
+/**
+ * Index of the Jenkins queue items of OpenShift Builds, by Build UID and by
+ * BuildConfig UID, kept up to date from queue events.
+ *
+ * An item is a different object in each state it goes through, so the index
+ * always holds the object of its current state, which is the one
+ * {@link Queue#cancel(Queue.Item)} accepts.
+ */
+@Extension
+public class QueuedBuildIndex extends QueueListener {
+
+    private final Index<Queue.Item> items = new Index<>();
+
+    public static QueuedBuildIndex get() {
+        return ExtensionList.lookupSingleton(QueuedBuildIndex.class);
+    }
+
+    /**
+     * @return the queue item of the given Build, or null if it is not queued
+     */
+    public Queue.Item getItem(String buildUid) {
+        return items.get(buildUid);
+    }
+
+    /**
+     * @return the queue items of the Builds of the given BuildConfig
+     */
+    public List<Queue.Item> getItemsOfBuildConfig(String buildConfigUid) {
+        return items.getOfBuildConfig(buildConfigUid);
+    }
+
+    @Override
+    public void onEnterWaiting(Queue.WaitingItem wi) {
+        index(wi);
+    }
+
+    @Override
+    public void onEnterBlocked(Queue.BlockedItem bi) {
+        index(bi);
+    }
+
+    @Override
+    public void onEnterBuildable(Queue.BuildableItem bi) {
+        index(bi);
+    }
+
+    @Override
+    public void onLeft(Queue.LeftItem li) {
+        BuildCause cause = getBuildCause(li);
+        if (cause != null && cause.getUid() != null) {
+            items.remove(cause.getUid(), cause.getBuildConfigUid());
+        }
+    }
+
+    private void index(Queue.Item item) {
+        BuildCause cause = getBuildCause(item);
+        if (cause != null && cause.getUid() != null) {
+            items.put(cause.getUid(), cause.getBuildConfigUid(), item);
+        }
+    }
+
+    private static BuildCause getBuildCause(Queue.Item item) {
+        for (Cause cause : item.getCauses()) {
+            if (cause instanceof BuildCause) {
+                return (BuildCause) cause;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Items by Build UID and by BuildConfig UID; visible for tests.
+     */
+    static class Index<T> {
+        // current item by Build UID
+        private final ConcurrentHashMap<String, T> byBuildUid = new ConcurrentHashMap<>();
+        // Build UIDs of indexed items by BuildConfig UID
+        private final ConcurrentHashMap<String, Set<String>> byBuildConfigUid = new ConcurrentHashMap<>();
+
+        T get(String buildUid) {
+            return buildUid != null ? byBuildUid.get(buildUid) : null;
+        }
+
+        List<T> getOfBuildConfig(String buildConfigUid) {
+            Set<String> buildUids = buildConfigUid != null ? byBuildConfigUid.get(buildConfigUid) : null;
+            if (buildUids == null) {
+                return Collections.emptyList();
+            }
+            List<T> items = new ArrayList<>(buildUids.size());
+            for (String buildUid : buildUids) {
+                T item = byBuildUid.get(buildUid);
+                if (item != null) {
+                    items.add(item);
+                }
+            }
+            return items;
+        }
+
+        void put(String buildUid, String buildConfigUid, T item) {
+            byBuildUid.put(buildUid, item);
+            if (buildConfigUid != null) {
+                byBuildConfigUid.computeIfAbsent(buildConfigUid, k -> ConcurrentHashMap.newKeySet()).add(buildUid);
+            }
+        }
+
+        void remove(String buildUid, String buildConfigUid) {
+            byBuildUid.remove(buildUid);
+            if (buildConfigUid != null) {
+                byBuildConfigUid.computeIfPresent(buildConfigUid, (k, buildUids) -> {
+                    buildUids.remove(buildUid);
+                    return buildUids.isEmpty() ? null : buildUids;
+                });
+            }
+        }
+
+        int size() {
+            return byBuildUid.size();
+        }
+    }
+}
@@ -0,0 +1,165 @@
+/**
+ * Copyright (C) 2016 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.fabric8.jenkins.openshiftsync;
+
+import static io.fabric8.jenkins.openshiftsync.BuildSyncRunListener.joinPaths;
+
+import java.lang.reflect.Method;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import hudson.PluginManager;
+import hudson.model.Run;
+import jenkins.model.Jenkins;
+
+/**
+ * The links to a run which are annotated on its OpenShift Build. None of them
+ * change while the run exists, so they are computed once per run and Jenkins
+ * URL.
+ */
+public class RunLinks {
+    private static final Logger logger = Logger.getLogger(RunLinks.class.getName());
+
+    private static final String BLUE_OCEAN_DISPLAY_URL_CLASS = "org.jenkinsci.plugins.blueoceandisplayurl.BlueOceanDisplayURLImpl";
+
+    private static volatile BlueOceanDisplayUrl blueOceanDisplayUrl;
+
+    private final String rootUrl;
+    private final String buildUrl;
+    private final String logsUrl;
+    private final String consoleUrl;
+    private final String blueOceanUrl;
+
+    private RunLinks(String rootUrl, String buildUrl, String logsUrl, String consoleUrl, String blueOceanUrl) {
+        this.rootUrl = rootUrl;
+        this.buildUrl = buildUrl;
+        this.logsUrl = logsUrl;
+        this.consoleUrl = consoleUrl;
+        this.blueOceanUrl = blueOceanUrl;
+    }
+
+    /**
+     * @param run     the run to compute the links of
+     * @param rootUrl the Jenkins URL
+     * @return the links of the run
+     */
+    public static RunLinks create(Run run, String rootUrl) {
+        String buildUrl = joinPaths(rootUrl, run.getUrl());
+        return new RunLinks(rootUrl, buildUrl, joinPaths(buildUrl, "/consoleText"), joinPaths(buildUrl, "/console"),
+                getBlueOceanUrl(run, rootUrl));
+    }
+
+    private static String getBlueOceanUrl(Run run, String rootUrl) {
+        BlueOceanDisplayUrl displayUrl = getBlueOceanDisplayUrl();
+        if (displayUrl == null) {
+            return null;
+        }
+        try {
+            String logsBlueOceanUrl = displayUrl.getRunURL(run);
+            if (logsBlueOceanUrl == null) {
+                return null;
+            }
+            logsBlueOceanUrl = logsBlueOceanUrl.replace("http://unconfigured-jenkins-location/", "");
+            if (logsBlueOceanUrl.startsWith("http://") || logsBlueOceanUrl.startsWith("https://"))
+                // still normalize string
+                return joinPaths("", logsBlueOceanUrl);
+            return joinPaths(rootUrl, logsBlueOceanUrl);
+        } catch (Exception e) {
+            logger.log(Level.WARNING, "Failed to compute the Blue Ocean URL of " + run.getUrl(), e);
+            return null;
+        }
+    }
+
+    /**
+     * there are utility functions in the blueocean-dashboard plugin which
+     * construct the entire blueocean URI; however, attempting to pull that in as
+     * a maven dependency was untenable from an injected test perspective; so we
+     * are leveraging reflection. The reflective handles are only looked up again
+     * when the set of loaded plugins changes.
+     */
+    private static BlueOceanDisplayUrl getBlueOceanDisplayUrl() {
+        Jenkins jenkins = Jenkins.getInstanceOrNull();
+        if (jenkins == null) {
+            return null;
+        }
+        PluginManager pluginMgr = jenkins.getPluginManager();
+        if (pluginMgr == null || pluginMgr.uberClassLoader == null) {
+            return null;
+        }
+        ClassLoader cl = pluginMgr.uberClassLoader;
+        int generation = pluginMgr.getPlugins().size();
+        BlueOceanDisplayUrl displayUrl = blueOceanDisplayUrl;
+        if (displayUrl == null || !displayUrl.isFor(cl, generation)) {
+            displayUrl = new BlueOceanDisplayUrl(cl, generation);
+            blueOceanDisplayUrl = displayUrl;
+        }
+        return displayUrl.isAvailable() ? displayUrl : null;
+    }
+
+    public boolean isFor(String rootUrl) {
+        return this.rootUrl == null ? rootUrl == null : this.rootUrl.equals(rootUrl);
+    }
+
+    public String getBuildUrl() {
+        return buildUrl;
+    }
+
+    public String getLogsUrl() {
+        return logsUrl;
+    }
+
+    public String getConsoleUrl() {
+        return consoleUrl;
+    }
+
+    public String getBlueOceanUrl() {
+        return blueOceanUrl;
+    }
+
+    private static class BlueOceanDisplayUrl {
+        private final ClassLoader classLoader;
+        private final int generation;
+        private Object displayURL;
+        private Method getRunURLMethod;
+
+        BlueOceanDisplayUrl(ClassLoader classLoader, int generation) {
+            this.classLoader = classLoader;
+            this.generation = generation;
+            try {
+                Class<?> weburlbldr = classLoader.loadClass(BLUE_OCEAN_DISPLAY_URL_CLASS);
+                this.displayURL = weburlbldr.getConstructor().newInstance();
+                this.getRunURLMethod = weburlbldr.getMethod("getRunURL", Run.class);
+            } catch (ClassNotFoundException e) {
+                logger.fine("Blue Ocean display URL plugin not installed");
+            } catch (Exception | LinkageError e) {
+                logger.log(Level.WARNING, "Cannot look up " + BLUE_OCEAN_DISPLAY_URL_CLASS, e);
+            }
+        }
+
+        boolean isFor(ClassLoader classLoader, int generation) {
+            return this.classLoader == classLoader && this.generation == generation;
+        }
+
+        boolean isAvailable() {
+            return getRunURLMethod != null;
+        }
+
+        String getRunURL(Run run) throws Exception {
+            Object blueOceanURI = getRunURLMethod.invoke(displayURL, run);
+            return blueOceanURI != null ? blueOceanURI.toString() : null;
+        }
+    }
+}
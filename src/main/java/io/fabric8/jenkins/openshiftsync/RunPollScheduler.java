@@ -0,0 +1,176 @@
+/**
+ * Copyright (C) 2016 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.fabric8.jenkins.openshiftsync;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hashed timing wheel deciding when each running build is polled next.
+ *
+ * Every scheduled item has its own poll interval. Items are hashed into the
+ * slot of the tick they are due at, so adding, removing and rescheduling an
+ * item are O(1) and advancing the wheel only looks at the slots of the ticks
+ * which passed. Items due more than one revolution ahead stay in their slot
+ * until their tick comes round.
+ *
+ * An item handed out by {@link #advance(long)} stays registered, without a
+ * deadline, until it is rescheduled or removed. That way a build completing
+ * while it is being polled is not put back on the wheel by the poller.
+ *
+ * @param <T> the type of the scheduled items
+ */
+public class RunPollScheduler<T> {
+
+    private final long tickMs;
+    private final List<Map<String, Entry<T>>> wheel;
+    private final Map<String, Entry<T>> entries = new HashMap<>();
+    private long currentTick;
+
+    /**
+     * @param tickMs    the resolution of the wheel in milliseconds
+     * @param wheelSize the number of slots
+     * @param now       the current time in milliseconds
+     */
+    public RunPollScheduler(long tickMs, int wheelSize, long now) {
+        this.tickMs = tickMs;
+        this.wheel = new ArrayList<>(wheelSize);
+        for (int i = 0; i < wheelSize; i++) {
+            wheel.add(new LinkedHashMap<String, Entry<T>>());
+        }
+        this.currentTick = toTick(now);
+    }
+
+    /**
+     * Adds an item, or moves it if it is already scheduled.
+     *
+     * @param id         the id of the item
+     * @param item       the item
+     * @param intervalMs the delay until it is due, which also becomes its poll
+     *                   interval
+     * @param now        the current time in milliseconds
+     */
+    public synchronized void schedule(String id, T item, long intervalMs, long now) {
+        Entry<T> entry = entries.get(id);
+        if (entry == null) {
+            entry = new Entry<>(id, item);
+            entries.put(id, entry);
+        }
+        place(entry, intervalMs, now);
+    }
+
+    /**
+     * Moves an item which is still registered.
+     *
+     * @return false if the item was removed in the meantime
+     */
+    public synchronized boolean reschedule(String id, long intervalMs, long now) {
+        Entry<T> entry = entries.get(id);
+        if (entry == null) {
+            return false;
+        }
+        place(entry, intervalMs, now);
+        return true;
+    }
+
+    public synchronized boolean remove(String id) {
+        Entry<T> entry = entries.remove(id);
+        if (entry == null) {
+            return false;
+        }
+        unplace(entry);
+        return true;
+    }
+
+    /**
+     * @return the poll interval of the item, or -1 if it is not registered
+     */
+    public synchronized long getInterval(String id) {
+        Entry<T> entry = entries.get(id);
+        return entry != null ? entry.intervalMs : -1;
+    }
+
+    /**
+     * Moves the wheel to the current time.
+     *
+     * @param now the current time in milliseconds
+     * @return the items which became due, in the order they were due
+     */
+    public synchronized List<T> advance(long now) {
+        List<T> due = new ArrayList<>();
+        long target = toTick(now);
+        // after a long pause there is no point going round more than once
+        if (target - currentTick > wheel.size()) {
+            currentTick = target - wheel.size();
+        }
+        while (currentTick < target) {
+            currentTick++;
+            Iterator<Entry<T>> iter = wheel.get(slot(currentTick)).values().iterator();
+            while (iter.hasNext()) {
+                Entry<T> entry = iter.next();
+                if (entry.deadlineTick <= currentTick) {
+                    iter.remove();
+                    entry.deadlineTick = -1;
+                    due.add(entry.item);
+                }
+            }
+        }
+        return due;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private void place(Entry<T> entry, long intervalMs, long now) {
+        unplace(entry);
+        entry.intervalMs = intervalMs;
+        // never schedule into the current tick, it was already processed
+        entry.deadlineTick = Math.max(toTick(now + intervalMs), currentTick + 1);
+        wheel.get(slot(entry.deadlineTick)).put(entry.id, entry);
+    }
+
+    private void unplace(Entry<T> entry) {
+        if (entry.deadlineTick >= 0) {
+            wheel.get(slot(entry.deadlineTick)).remove(entry.id);
+            entry.deadlineTick = -1;
+        }
+    }
+
+    private long toTick(long time) {
+        return time / tickMs;
+    }
+
+    private int slot(long tick) {
+        return (int) (tick % wheel.size());
+    }
+
+    private static class Entry<T> {
+        private final String id;
+        private final T item;
+        private long intervalMs;
+        private long deadlineTick = -1;
+
+        Entry(String id, T item) {
+            this.id = id;
+            this.item = item;
+        }
+    }
+}
@@ -0,0 +1,191 @@
+/**
+ * Copyright (C) 2016 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.fabric8.jenkins.openshiftsync;
+
+import static io.fabric8.jenkins.openshiftsync.ApiRateLimiter.withPriority;
+import static io.fabric8.jenkins.openshiftsync.ApiRateLimiter.Priority.STATUS;
+import static io.fabric8.jenkins.openshiftsync.JenkinsUtils.deleteRun;
+import static io.fabric8.jenkins.openshiftsync.OpenShiftUtils.getAuthenticatedOpenShiftClient;
+import static java.util.logging.Level.WARNING;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+import org.apache.commons.lang.StringUtils;
+import org.jenkinsci.plugins.workflow.job.WorkflowJob;
+import org.jenkinsci.plugins.workflow.job.WorkflowRun;
+
+import hudson.security.ACL;
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
+import io.fabric8.kubernetes.api.model.ListOptionsBuilder;
+import io.fabric8.openshift.api.model.Build;
+import io.fabric8.openshift.api.model.BuildList;
+import jenkins.model.Jenkins;
+
+/**
+ * Deletes the runs of BuildConfig backed jobs whose Build no longer exists.
+ *
+ * Jobs are grouped by namespace and the Build UIDs of each namespace are
+ * gathered once, from the informer cache when it has synced or else with a
+ * paginated list, so that matching a run is a set lookup. Namespaces are
+ * reconciled in parallel.
+ */
+public class RunReconciler {
+    private static final Logger logger = Logger.getLogger(RunReconciler.class.getName());
+
+    private RunReconciler() {
+    }
+
+    /**
+     * @return what was checked and deleted
+     */
+    public static Report reconcile() {
+        long start = System.currentTimeMillis();
+        Map<String, List<WorkflowJob>> jobsByNamespace = new HashMap<>();
+        for (WorkflowJob job : Jenkins.getActiveInstance().getAllItems(WorkflowJob.class)) {
+            BuildConfigProjectProperty property = job.getProperty(BuildConfigProjectProperty.class);
+            if (property != null && StringUtils.isNotBlank(property.getNamespace())
+                    && StringUtils.isNotBlank(property.getName())) {
+                jobsByNamespace.computeIfAbsent(property.getNamespace(), k -> new ArrayList<>()).add(job);
+            }
+        }
+
+        Report report = new Report();
+        if (!jobsByNamespace.isEmpty()) {
+            GlobalPluginConfiguration config = GlobalPluginConfiguration.get();
+            int threads = Math.max(1, Math.min(config.getReconcileThreads(), jobsByNamespace.size()));
+            int pageSize = Math.max(1, config.getReconcilePageSize());
+            ExecutorService executor = Executors.newFixedThreadPool(threads,
+                    new NamingThreadFactory(new DaemonThreadFactory(), "OpenShift run reconciler"));
+            try {
+                Map<String, Future<?>> futures = new HashMap<>();
+                for (Map.Entry<String, List<WorkflowJob>> entry : jobsByNamespace.entrySet()) {
+                    String ns = entry.getKey();
+                    // worker threads do not inherit the caller's authentication
+                    futures.put(ns, executor.submit(() -> ACL.impersonate(ACL.SYSTEM,
+                            () -> reconcile(ns, entry.getValue(), pageSize, report))));
+                }
+                for (Map.Entry<String, Future<?>> entry : futures.entrySet()) {
+                    try {
+                        entry.getValue().get();
+                    } catch (ExecutionException e) {
+                        report.failedNamespaces.incrementAndGet();
+                        logger.log(WARNING, "Failed to reconcile job runs in namespace " + entry.getKey(),
+                                e.getCause());
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+        report.namespaces = jobsByNamespace.size();
+        report.durationMillis = System.currentTimeMillis() - start;
+        return report;
+    }
+
+    private static void reconcile(String ns, List<WorkflowJob> jobs, int pageSize, Report report) {
+        Set<String> uids = getBuildUids(ns, pageSize);
+        for (WorkflowJob job : jobs) {
+            report.jobs.incrementAndGet();
+            // copy, deleting a run modifies the job's run map
+            for (WorkflowRun run : new ArrayList<>(job.getBuilds())) {
+                report.runsChecked.incrementAndGet();
+                BuildCause cause = run.getCause(BuildCause.class);
+                if (cause == null || !uids.contains(cause.getUid())) {
+                    deleteRun(run);
+                    report.runsDeleted.incrementAndGet();
+                }
+            }
+        }
+    }
+
+    private static Set<String> getBuildUids(String ns, int pageSize) {
+        Set<String> uids = new HashSet<>();
+        if (InformerLister.BUILDS.hasSynced(ns)) {
+            for (Build build : InformerLister.BUILDS.list(ns)) {
+                uids.add(build.getMetadata().getUid());
+            }
+            return uids;
+        }
+        String next = null;
+        do {
+            String page = next;
+            BuildList builds = withPriority(STATUS, () -> getAuthenticatedOpenShiftClient().builds().inNamespace(ns)
+                    .list(new ListOptionsBuilder().withLimit((long) pageSize).withContinue(page).build()));
+            for (Build build : builds.getItems()) {
+                uids.add(build.getMetadata().getUid());
+            }
+            next = builds.getMetadata() != null ? builds.getMetadata().getContinue() : null;
+        } while (StringUtils.isNotEmpty(next));
+        return uids;
+    }
+
+    /**
+     * Outcome of a reconciliation.
+     */
+    public static class Report {
+        private int namespaces;
+        private final AtomicInteger failedNamespaces = new AtomicInteger();
+        private final AtomicInteger jobs = new AtomicInteger();
+        private final AtomicInteger runsChecked = new AtomicInteger();
+        private final AtomicInteger runsDeleted = new AtomicInteger();
+        private long durationMillis;
+
+        public int getNamespaces() {
+            return namespaces;
+        }
+
+        public int getFailedNamespaces() {
+            return failedNamespaces.get();
+        }
+
+        public int getJobs() {
+            return jobs.get();
+        }
+
+        public int getRunsChecked() {
+            return runsChecked.get();
+        }
+
+        public int getRunsDeleted() {
+            return runsDeleted.get();
+        }
+
+        public long getDurationMillis() {
+            return durationMillis;
+        }
+
+        @Override
+        public String toString() {
+            return "namespaces=" + namespaces + " failedNamespaces=" + getFailedNamespaces() + " jobs=" + getJobs()
+                    + " runsChecked=" + getRunsChecked() + " runsDeleted=" + getRunsDeleted() + " durationMs="
+                    + durationMillis;
+        }
+    }
+}
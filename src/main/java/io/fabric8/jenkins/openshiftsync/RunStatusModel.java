@@ -0,0 +1,267 @@
+/**
+ * Copyright (C) 2016 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.fabric8.jenkins.openshiftsync;
+
+import static io.fabric8.jenkins.openshiftsync.BuildSyncRunListener.joinPaths;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.jenkinsci.plugins.workflow.flow.FlowExecution;
+import org.jenkinsci.plugins.workflow.graph.FlowNode;
+import org.jenkinsci.plugins.workflow.job.WorkflowRun;
+
+import com.cloudbees.workflow.rest.external.AtomFlowNodeExt;
+import com.cloudbees.workflow.rest.external.FlowNodeExt;
+import com.cloudbees.workflow.rest.external.RunExt;
+import com.cloudbees.workflow.rest.external.StageNodeExt;
+import com.cloudbees.workflow.rest.external.StatusExt;
+import com.cloudbees.workflow.rest.hal.Link;
+
+import io.jenkins.blueocean.rest.factory.BlueRunFactory;
+import io.jenkins.blueocean.rest.model.BluePipelineNode;
+import io.jenkins.blueocean.rest.model.BlueRun;
+import io.jenkins.blueocean.rest.model.BlueRun.BlueRunResult;
+
+/**
+ * The status of a pipeline run as last computed for its OpenShift Build.
+ *
+ * Recomputing the status of a run with large parallel fan-outs means walking
+ * thousands of flow nodes, so the model remembers the current heads of the
+ * flow graph and the stages and flow nodes it already processed:
+ * <ul>
+ * <li>if no node was appended to the graph since the last computation the run
+ * is not looked at again</li>
+ * <li>finished stages and flow nodes which did not change are reused as they
+ * are, only new or still running ones get their links rewritten</li>
+ * <li>Blue Ocean is only asked which stages were not built when a stage was
+ * added or changed its status</li>
+ * </ul>
+ */
+public class RunStatusModel {
+    private static final Logger logger = Logger.getLogger(RunStatusModel.class.getName());
+
+    private String headsSignature;
+    private boolean building;
+    private RunExt runExt;
+    private final Map<String, StageNodeExt> stages = new HashMap<>();
+    // every stage of the run including the ones not built, to tell whether
+    // Blue Ocean needs to be asked again
+    private final Map<String, StatusExt> stageStatuses = new HashMap<>();
+    private final Map<String, AtomFlowNodeExt> flowNodes = new HashMap<>();
+    private Map<String, BlueRunResult> blueRunResults = Collections.emptyMap();
+    private int numStages;
+    private int numFlowNodes;
+    private boolean pendingInput;
+
+    /**
+     * @param run the run this model was computed for
+     * @return true if the run is still building and nothing was appended to its
+     *         flow graph since the model was last updated
+     */
+    public synchronized boolean isUpToDate(WorkflowRun run) {
+        if (runExt == null || !building || !run.isBuilding()) {
+            return false;
+        }
+        return getHeadsSignature(run).equals(headsSignature);
+    }
+
+    /**
+     * Recomputes the status of the run, reusing whatever did not change since
+     * the last update.
+     *
+     * @param run     the run to compute the status of
+     * @param rootUrl the Jenkins URL relative links are resolved against
+     * @return the status of the run with absolute links and without the stages
+     *         which were not built
+     */
+    public synchronized RunExt update(WorkflowRun run, String rootUrl) {
+        String signature = getHeadsSignature(run);
+        boolean runBuilding = run.isBuilding();
+        RunExt wfRunExt = RunExt.create(run);
+
+        Link self = wfRunExt.get_links().self;
+        self.setHref(absoluteHref(rootUrl, self.href));
+
+        List<StageNodeExt> allStages = wfRunExt.getStages();
+        if (!runBuilding || stagesChanged(allStages)) {
+            blueRunResults = getBlueRunResults(run);
+        }
+
+        Map<String, StageNodeExt> currentStages = new HashMap<>();
+        Map<String, AtomFlowNodeExt> currentFlowNodes = new HashMap<>();
+        List<StageNodeExt> validStageList = new ArrayList<>();
+        int newNumFlowNodes = 0;
+        boolean newPendingInput = false;
+        for (StageNodeExt stage : allStages) {
+            // the StatusExt.getStatus() cannot be trusted for declarative
+            // pipeline; for example, skipped steps/stages will be marked as
+            // complete; we leverage the blue ocean state machine to determine
+            // this
+            BlueRunResult result = blueRunResults.get(stage.getName());
+            if (result != null && result == BlueRunResult.NOT_BUILT) {
+                logger.fine("skipping stage " + stage.getName() + " for the status JSON for pipeline run "
+                        + run.getDisplayName()
+                        + " because it was not executed (most likely because of a failure in another stage)");
+                continue;
+            }
+            StageNodeExt previous = stages.get(stage.getId());
+            if (previous != null && isFinished(previous.getStatus()) && previous.getStatus() == stage.getStatus()
+                    && sameSize(previous.getStageFlowNodes(), stage.getStageFlowNodes())) {
+                stage = previous;
+                for (AtomFlowNodeExt node : stage.getStageFlowNodes()) {
+                    currentFlowNodes.put(node.getId(), node);
+                }
+            } else {
+                absoluteLinks(rootUrl, stage.get_links());
+                List<AtomFlowNodeExt> nodes = new ArrayList<>(sizeOf(stage.getStageFlowNodes()));
+                if (stage.getStageFlowNodes() != null) {
+                    for (AtomFlowNodeExt node : stage.getStageFlowNodes()) {
+                        AtomFlowNodeExt previousNode = flowNodes.get(node.getId());
+                        if (previousNode != null && isFinished(previousNode.getStatus())
+                                && previousNode.getStatus() == node.getStatus()) {
+                            node = previousNode;
+                        } else {
+                            absoluteLinks(rootUrl, node.get_links());
+                        }
+                        nodes.add(node);
+                        currentFlowNodes.put(node.getId(), node);
+                    }
+                }
+                stage.setStageFlowNodes(nodes);
+            }
+            validStageList.add(stage);
+            currentStages.put(stage.getId(), stage);
+            newNumFlowNodes += sizeOf(stage.getStageFlowNodes());
+            if (stage.getStatus() == StatusExt.PAUSED_PENDING_INPUT) {
+                newPendingInput = true;
+            }
+        }
+        // override stages in case declarative has fooled base pipeline support
+        wfRunExt.setStages(validStageList);
+
+        stages.clear();
+        stages.putAll(currentStages);
+        stageStatuses.clear();
+        for (StageNodeExt stage : allStages) {
+            stageStatuses.put(stage.getId(), stage.getStatus());
+        }
+        flowNodes.clear();
+        flowNodes.putAll(currentFlowNodes);
+        numStages = allStages.size();
+        numFlowNodes = newNumFlowNodes;
+        pendingInput = newPendingInput;
+        headsSignature = signature;
+        building = runBuilding;
+        runExt = wfRunExt;
+        return wfRunExt;
+    }
+
+    private boolean stagesChanged(List<StageNodeExt> allStages) {
+        if (allStages.size() != stageStatuses.size()) {
+            return true;
+        }
+        for (StageNodeExt stage : allStages) {
+            if (!stageStatuses.containsKey(stage.getId()) || stageStatuses.get(stage.getId()) != stage.getStatus()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Map<String, BlueRunResult> getBlueRunResults(WorkflowRun run) {
+        Map<String, BlueRunResult> results = new HashMap<>();
+        try {
+            BlueRun blueRun = BlueRunFactory.getRun(run, null);
+            if (blueRun != null && blueRun.getNodes() != null) {
+                Iterator<BluePipelineNode> iter = blueRun.getNodes().iterator();
+                while (iter.hasNext()) {
+                    BluePipelineNode node = iter.next();
+                    if (node != null) {
+                        results.put(node.getDisplayName(), node.getResult());
+                    }
+                }
+            }
+        } catch (Throwable t) {
+            // in case the blue ocean deps get bumped by another dependency vs.
+            // our bumping it explicitly, we want to find out quickly that we
+            // need to switch methods again
+            logger.log(Level.WARNING, "getBlueRunResults", t);
+        }
+        return results;
+    }
+
+    private static String getHeadsSignature(WorkflowRun run) {
+        FlowExecution execution = run.getExecution();
+        if (execution == null) {
+            return "";
+        }
+        StringBuilder sb = new StringBuilder();
+        for (FlowNode head : execution.getCurrentHeads()) {
+            sb.append(head.getId()).append(',');
+        }
+        return sb.toString();
+    }
+
+    private static boolean isFinished(StatusExt status) {
+        return status != null && status != StatusExt.IN_PROGRESS && status != StatusExt.PAUSED_PENDING_INPUT;
+    }
+
+    private static boolean sameSize(List<?> a, List<?> b) {
+        return sizeOf(a) == sizeOf(b);
+    }
+
+    private static int sizeOf(List<?> list) {
+        return list != null ? list.size() : 0;
+    }
+
+    private static void absoluteLinks(String rootUrl, FlowNodeExt.FlowNodeLinks links) {
+        if (links == null) {
+            return;
+        }
+        if (links.self != null) {
+            links.self.setHref(absoluteHref(rootUrl, links.self.href));
+        }
+        if (links.getLog() != null) {
+            links.getLog().setHref(absoluteHref(rootUrl, links.getLog().href));
+        }
+    }
+
+    static String absoluteHref(String rootUrl, String href) {
+        if (href == null || href.startsWith("http://") || href.startsWith("https://")) {
+            return href;
+        }
+        return joinPaths(rootUrl, href);
+    }
+
+    public synchronized int getNumStages() {
+        return numStages;
+    }
+
+    public synchronized int getNumFlowNodes() {
+        return numFlowNodes;
+    }
+
+    public synchronized boolean isPendingInput() {
+        return pendingInput;
+    }
+}
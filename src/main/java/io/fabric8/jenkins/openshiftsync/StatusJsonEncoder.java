@@ -0,0 +1,252 @@
+/**
+ * Copyright (C) 2016 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.fabric8.jenkins.openshiftsync;
+
+import static io.fabric8.jenkins.openshiftsync.Constants.STATUS_JSON_ENCODING_GZIP_BASE64;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Encodes the run status annotated on OpenShift Builds.
+ *
+ * Annotations of an object share a 256KB limit and every Build watcher in the
+ * cluster caches them, so the status JSON is kept under a byte budget. When the
+ * full status does not fit, the flow nodes of stages are dropped, finished
+ * stages first and in stage order so that the same status always yields the
+ * same output; if that is still not enough the stages are reduced to their id,
+ * name, status and timing, and as a last resort the last stages are dropped.
+ * The number of dropped flow nodes and stages is recorded in the
+ * {@value #TRUNCATED_FLOW_NODES} and {@value #TRUNCATED_STAGES} fields.
+ *
+ * The result can optionally be gzip compressed and base64 encoded, in which
+ * case {@link Encoded#getEncoding()} is {@value Constants#STATUS_JSON_ENCODING_GZIP_BASE64}.
+ */
+public class StatusJsonEncoder {
+
+    static final String TRUNCATED_FLOW_NODES = "truncatedFlowNodes";
+    static final String TRUNCATED_STAGES = "truncatedStages";
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final ObjectWriter WRITER = MAPPER.writer();
+
+    private StatusJsonEncoder() {
+    }
+
+    /**
+     * Serializes the given object with the shared writer.
+     */
+    public static String toJson(Object value) throws JsonProcessingException {
+        return WRITER.writeValueAsString(value);
+    }
+
+    /**
+     * @param status   the run status to encode
+     * @param maxBytes the byte budget of the encoded value, 0 or less for no limit
+     * @param compress whether to gzip and base64 encode the JSON
+     * @return the encoded status
+     */
+    public static Encoded encode(Object status, int maxBytes, boolean compress) throws IOException {
+        byte[] json = WRITER.writeValueAsBytes(status);
+        String value = encodeValue(json, compress);
+        int size = sizeOf(json, value, compress);
+        if (maxBytes <= 0 || size <= maxBytes) {
+            return new Encoded(value, compress, false);
+        }
+
+        JsonNode tree = MAPPER.readTree(json);
+        if (!tree.isObject()) {
+            return new Encoded(value, compress, false);
+        }
+        ObjectNode root = (ObjectNode) tree;
+        // the JSON size we aim for, scaled by the compression ratio we just
+        // observed
+        long target = compress ? (long) maxBytes * json.length / size : maxBytes;
+        dropFlowNodes(root, json.length, target);
+        json = WRITER.writeValueAsBytes(root);
+        value = encodeValue(json, compress);
+        if (sizeOf(json, value, compress) > maxBytes) {
+            summarizeStages(root);
+            json = WRITER.writeValueAsBytes(root);
+            value = encodeValue(json, compress);
+            if (sizeOf(json, value, compress) > maxBytes) {
+                value = dropStages(root, maxBytes, compress);
+            }
+        }
+        return new Encoded(value, compress, true);
+    }
+
+    /**
+     * Keeps the longest prefix of the summarized stages which fits in the
+     * budget.
+     */
+    private static String dropStages(ObjectNode root, int maxBytes, boolean compress) throws IOException {
+        JsonNode stages = root.get("stages");
+        if (stages == null || !stages.isArray()) {
+            return encodeValue(WRITER.writeValueAsBytes(root), compress);
+        }
+        ArrayNode all = (ArrayNode) stages;
+        // binary search on the number of stages kept, all of them do not fit
+        int lo = 0;
+        int hi = all.size() - 1;
+        String fitting = null;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            String value = encodeWithStages(root, all, mid, compress);
+            if (sizeOf(value, compress) <= maxBytes) {
+                fitting = value;
+                lo = mid + 1;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        // if not even the status without stages fits there is nothing left
+        // to drop
+        return fitting != null ? fitting : encodeWithStages(root, all, 0, compress);
+    }
+
+    private static String encodeWithStages(ObjectNode root, ArrayNode all, int kept, boolean compress)
+            throws IOException {
+        ArrayNode prefix = MAPPER.createArrayNode();
+        for (int i = 0; i < kept; i++) {
+            prefix.add(all.get(i));
+        }
+        root.set("stages", prefix);
+        root.put(TRUNCATED_STAGES, all.size() - kept);
+        return encodeValue(WRITER.writeValueAsBytes(root), compress);
+    }
+
+    private static void dropFlowNodes(ObjectNode root, long size, long target) throws JsonProcessingException {
+        JsonNode stages = root.get("stages");
+        if (stages == null || !stages.isArray()) {
+            return;
+        }
+        List<ObjectNode> candidates = new ArrayList<>();
+        for (JsonNode stage : stages) {
+            if (stage.isObject() && isFinished(stage)) {
+                candidates.add((ObjectNode) stage);
+            }
+        }
+        for (JsonNode stage : stages) {
+            if (stage.isObject() && !isFinished(stage)) {
+                candidates.add((ObjectNode) stage);
+            }
+        }
+        int dropped = 0;
+        for (ObjectNode stage : candidates) {
+            if (size <= target) {
+                break;
+            }
+            JsonNode nodes = stage.get("stageFlowNodes");
+            if (nodes == null || !nodes.isArray() || nodes.size() == 0) {
+                continue;
+            }
+            // "[]" stays behind
+            size -= WRITER.writeValueAsBytes(nodes).length - 2;
+            dropped += nodes.size();
+            stage.putArray("stageFlowNodes");
+        }
+        root.put(TRUNCATED_FLOW_NODES, dropped);
+    }
+
+    private static void summarizeStages(ObjectNode root) {
+        JsonNode stages = root.get("stages");
+        if (stages == null || !stages.isArray()) {
+            return;
+        }
+        ArrayNode summary = MAPPER.createArrayNode();
+        int dropped = root.path(TRUNCATED_FLOW_NODES).asInt(0);
+        for (JsonNode stage : stages) {
+            dropped += stage.path("stageFlowNodes").size();
+            ObjectNode stageSummary = summary.addObject();
+            for (String field : new String[] { "id", "name", "status", "startTimeMillis", "durationMillis" }) {
+                if (stage.has(field)) {
+                    stageSummary.set(field, stage.get(field));
+                }
+            }
+        }
+        root.set("stages", summary);
+        root.put(TRUNCATED_FLOW_NODES, dropped);
+    }
+
+    private static boolean isFinished(JsonNode stage) {
+        String status = stage.path("status").asText();
+        return !"IN_PROGRESS".equals(status) && !"PAUSED_PENDING_INPUT".equals(status);
+    }
+
+    private static int sizeOf(byte[] json, String value, boolean compress) {
+        // base64 is plain ASCII
+        return compress ? value.length() : json.length;
+    }
+
+    private static int sizeOf(String value, boolean compress) {
+        return compress ? value.length() : value.getBytes(UTF_8).length;
+    }
+
+    private static String encodeValue(byte[] json, boolean compress) throws IOException {
+        if (!compress) {
+            return new String(json, UTF_8);
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(json.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+            gzip.write(json);
+        }
+        return Base64.getEncoder().encodeToString(bytes.toByteArray());
+    }
+
+    /**
+     * An encoded run status.
+     */
+    public static class Encoded {
+        private final String value;
+        private final boolean compressed;
+        private final boolean truncated;
+
+        Encoded(String value, boolean compressed, boolean truncated) {
+            this.value = value;
+            this.compressed = compressed;
+            this.truncated = truncated;
+        }
+
+        public String getValue() {
+            return value;
+        }
+
+        /**
+         * @return the encoding to advertise next to the value, or null for plain
+         *         JSON
+         */
+        public String getEncoding() {
+            return compressed ? STATUS_JSON_ENCODING_GZIP_BASE64 : null;
+        }
+
+        public boolean isTruncated() {
+            return truncated;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+/**
+ * Copyright (C) 2016 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.fabric8.jenkins.openshiftsync;
+
+import static io.fabric8.jenkins.openshiftsync.ApiRateLimiter.Priority.PHASE;
+import static io.fabric8.jenkins.openshiftsync.ApiRateLimiter.Priority.STATUS;
+import static io.fabric8.jenkins.openshiftsync.ApiRateLimiter.Priority.TRIGGER;
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.Test;
+
+import io.fabric8.jenkins.openshiftsync.ApiRateLimiter.Priority;
+
+public class ApiRateLimiterTest {
+
+    @Test
+    public void testBurstThenReject() throws Exception {
+        ApiRateLimiter limiter = new ApiRateLimiter();
+        limiter.configure(1, 2);
+        assertTrue(limiter.acquire(PHASE, 0));
+        assertTrue(limiter.acquire(PHASE, 0));
+        assertFalse(limiter.acquire(PHASE, 0));
+        assertEquals(2, limiter.getAcquiredCount());
+        assertEquals(1, limiter.getRejectedCount());
+        assertEquals(0, limiter.getQueuedCount());
+    }
+
+    @Test
+    public void testHigherPriorityGoesFirst() throws Exception {
+        ApiRateLimiter limiter = new ApiRateLimiter();
+        // one token every 500ms
+        limiter.configure(2, 1);
+        assertTrue(limiter.acquire(PHASE, 0));
+
+        List<Priority> order = new CopyOnWriteArrayList<>();
+        Thread status = acquireInBackground(limiter, STATUS, order);
+        waitUntilQueued(limiter, STATUS);
+        Thread trigger = acquireInBackground(limiter, TRIGGER, order);
+        waitUntilQueued(limiter, TRIGGER);
+        status.join(10000);
+        trigger.join(10000);
+
+        assertEquals(asList(TRIGGER, STATUS), order);
+        assertEquals(2, limiter.getDelayedCount());
+    }
+
+    @Test
+    public void testDisabled() throws Exception {
+        ApiRateLimiter limiter = new ApiRateLimiter();
+        limiter.configure(0, 1);
+        for (int i = 0; i < 100; i++) {
+            assertTrue(limiter.acquire(STATUS, 0));
+        }
+        assertEquals(0, limiter.getRejectedCount());
+    }
+
+    private static Thread acquireInBackground(ApiRateLimiter limiter, Priority priority, List<Priority> order) {
+        Thread thread = new Thread(() -> {
+            try {
+                if (limiter.acquire(priority, 10000)) {
+                    order.add(priority);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        thread.start();
+        return thread;
+    }
+
+    private static void waitUntilQueued(ApiRateLimiter limiter, Priority priority) throws InterruptedException {
+        for (int i = 0; i < 1000 && limiter.getQueuedCount(priority) == 0; i++) {
+            Thread.sleep(1);
+        }
+        assertEquals(1, limiter.getQueuedCount(priority));
+    }
+}
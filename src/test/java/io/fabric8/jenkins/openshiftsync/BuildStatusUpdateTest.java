@@ -0,0 +1,74 @@
+/**
+ * Copyright (C) 2016 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.fabric8.jenkins.openshiftsync;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+public class BuildStatusUpdateTest {
+
+    @Test
+    public void testNewerFieldsWin() {
+        Map<String, String> olderAnnotations = new HashMap<>();
+        olderAnnotations.put("a", "1");
+        olderAnnotations.put("b", "1");
+        BuildStatusUpdate older = new BuildStatusUpdate("ns", "build-1", "uid", olderAnnotations, null, "Running",
+                "start", null, null);
+        BuildStatusUpdate newer = new BuildStatusUpdate("ns", "build-1", "uid", Collections.singletonMap("b", "2"),
+                null, "Complete", null, "end", null);
+
+        BuildStatusUpdate merged = newer.mergeWith(older);
+        assertEquals("1", merged.getAnnotations().get("a"));
+        assertEquals("2", merged.getAnnotations().get("b"));
+        assertEquals("Complete", merged.getPhase());
+        assertEquals("start", merged.getStartTimestamp());
+        assertEquals("end", merged.getCompletionTimestamp());
+        assertEquals(older.getEnqueuedAt(), merged.getEnqueuedAt());
+    }
+
+    @Test
+    public void testPhaseOnlyUpdateKeepsPendingAnnotations() {
+        BuildStatusUpdate older = new BuildStatusUpdate("ns", "build-1", "uid", Collections.singletonMap("a", "1"),
+                null, "Running", null, null, null);
+        BuildStatusUpdate merged = BuildStatusUpdate.phaseUpdate("ns", "build-1", "uid", "Cancelled")
+                .mergeWith(older);
+        assertEquals("1", merged.getAnnotations().get("a"));
+        assertEquals("Cancelled", merged.getPhase());
+    }
+
+    @Test
+    public void testRemovalsAndSetsOverrideEachOther() {
+        BuildStatusUpdate setInput = new BuildStatusUpdate("ns", "build-1", "uid",
+                Collections.singletonMap("input", "[]"), null, null, null, null, null);
+        BuildStatusUpdate removeInput = new BuildStatusUpdate("ns", "build-1", "uid", null,
+                Collections.singleton("input"), null, null, null, null);
+
+        BuildStatusUpdate removed = removeInput.mergeWith(setInput);
+        assertFalse(removed.getAnnotations().containsKey("input"));
+        assertTrue(removed.getRemovedAnnotations().contains("input"));
+
+        BuildStatusUpdate set = setInput.mergeWith(removeInput);
+        assertEquals("[]", set.getAnnotations().get("input"));
+        assertFalse(set.getRemovedAnnotations().contains("input"));
+    }
+}
@@ -0,0 +1,54 @@
+/**
+ * Copyright (C) 2016 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.fabric8.jenkins.openshiftsync;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+public class BuildUidIndexTest {
+
+    @Test
+    public void testMissIsNotLookedUpInTheHistory() {
+        Map<String, Integer> runs = new HashMap<>();
+        runs.put("known", 3);
+        BuildUidIndex index = new BuildUidIndex(null, runs);
+        assertNull(index.find("unknown", number -> {
+            throw new AssertionError("looked up run " + number);
+        }));
+    }
+
+    @Test
+    public void testIndexesOfDeletedItemsAreDropped() {
+        for (String name : new String[] { "uid-test/a", "uid-test/a/b", "uid-test/ab", "uid-test/c" }) {
+            BuildUidIndex.INDEXES.put(name, new BuildUidIndex(null, new HashMap<String, Integer>()));
+        }
+        BuildUidIndex.invalidate("uid-test/a");
+        assertFalse(BuildUidIndex.INDEXES.containsKey("uid-test/a"));
+        assertFalse(BuildUidIndex.INDEXES.containsKey("uid-test/a/b"));
+        assertTrue(BuildUidIndex.INDEXES.containsKey("uid-test/ab"));
+        assertTrue(BuildUidIndex.INDEXES.containsKey("uid-test/c"));
+
+        BuildUidIndex.invalidate("uid-test");
+        assertFalse(BuildUidIndex.INDEXES.containsKey("uid-test/ab"));
+        assertFalse(BuildUidIndex.INDEXES.containsKey("uid-test/c"));
+    }
+}
@@ -0,0 +1,179 @@
+/**
+ * Copyright (C) 2016 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.fabric8.jenkins.openshiftsync;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+public class KeyedWorkQueueTest {
+
+    @Test
+    public void testWaitingWorkCollapses() throws Exception {
+        ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor();
+        KeyedWorkQueue queue = new KeyedWorkQueue(1, "test", timer, 10, 100, 3);
+        try {
+            CountDownLatch started = new CountDownLatch(1);
+            CountDownLatch blocked = new CountDownLatch(1);
+            CountDownLatch done = new CountDownLatch(2);
+            List<String> ran = new CopyOnWriteArrayList<>();
+            queue.submit("bc", "block", () -> {
+                started.countDown();
+                blocked.await();
+            });
+            assertTrue(started.await(10, TimeUnit.SECONDS));
+            for (int i = 1; i <= 3; i++) {
+                String state = "update-" + i;
+                queue.submit("bc", "update", () -> {
+                    ran.add(state);
+                    done.countDown();
+                });
+            }
+            queue.submit("bc", "delete", () -> {
+                ran.add("delete");
+                done.countDown();
+            });
+            assertEquals(2, queue.getQueueDepth());
+            blocked.countDown();
+            assertTrue(done.await(10, TimeUnit.SECONDS));
+            assertEquals(asList("update-3", "delete"), ran);
+            assertEquals(2, queue.getCollapsedCount());
+        } finally {
+            queue.shutdown();
+            timer.shutdown();
+        }
+    }
+
+    @Test
+    public void testKeysRunInParallel() throws Exception {
+        ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor();
+        KeyedWorkQueue queue = new KeyedWorkQueue(2, "test", timer, 10, 100, 3);
+        try {
+            CountDownLatch blocked = new CountDownLatch(1);
+            CountDownLatch other = new CountDownLatch(1);
+            CountDownLatch second = new CountDownLatch(1);
+            queue.submit("slow", "a", blocked::await);
+            queue.submit("slow", "b", second::countDown);
+            queue.submit("fast", "a", other::countDown);
+            // a slow key holds up its own work only
+            assertTrue(other.await(10, TimeUnit.SECONDS));
+            assertEquals(1, second.getCount());
+            assertEquals(1, queue.getQueueDepth());
+            blocked.countDown();
+            assertTrue(second.await(10, TimeUnit.SECONDS));
+        } finally {
+            queue.shutdown();
+            timer.shutdown();
+        }
+    }
+
+    @Test
+    public void testFailedWorkIsRetried() throws Exception {
+        ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor();
+        KeyedWorkQueue queue = new KeyedWorkQueue(1, "test", timer, 10, 100, 3);
+        try {
+            AtomicInteger attempts = new AtomicInteger();
+            CountDownLatch done = new CountDownLatch(1);
+            queue.submit("bc", "add", () -> {
+                if (attempts.incrementAndGet() < 3) {
+                    throw new IllegalStateException("not yet");
+                }
+                done.countDown();
+            });
+            assertTrue(done.await(10, TimeUnit.SECONDS));
+            assertEquals(3, attempts.get());
+            assertEquals(2, queue.getRetriedCount());
+            assertEquals(0, queue.getDroppedCount());
+        } finally {
+            queue.shutdown();
+            timer.shutdown();
+        }
+    }
+
+    @Test
+    public void testRetryIsDroppedOnceNewerWorkRan() throws Exception {
+        ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor();
+        // the retry fires long after the newer work ran
+        KeyedWorkQueue queue = new KeyedWorkQueue(1, "test", timer, 300, 300, 3);
+        try {
+            List<String> ran = new CopyOnWriteArrayList<>();
+            CountDownLatch failed = new CountDownLatch(1);
+            CountDownLatch done = new CountDownLatch(1);
+            queue.submit("bc", "update", () -> {
+                ran.add("old");
+                failed.countDown();
+                throw new IllegalStateException("conflict");
+            });
+            assertTrue(failed.await(10, TimeUnit.SECONDS));
+            queue.submit("bc", "update", () -> {
+                ran.add("new");
+                done.countDown();
+            });
+            assertTrue(done.await(10, TimeUnit.SECONDS));
+            Thread.sleep(600);
+            assertEquals(asList("old", "new"), ran);
+            assertEquals(0, queue.getQueueDepth());
+        } finally {
+            queue.shutdown();
+            timer.shutdown();
+        }
+    }
+
+    @Test
+    public void testSubmittedWorkCompletesWhenRunOrReplaced() throws Exception {
+        ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor();
+        KeyedWorkQueue queue = new KeyedWorkQueue(1, "test", timer, 10, 100, 3);
+        try {
+            CountDownLatch started = new CountDownLatch(1);
+            CountDownLatch blocked = new CountDownLatch(1);
+            queue.submit("bc", "block", () -> {
+                started.countDown();
+                blocked.await();
+            });
+            assertTrue(started.await(10, TimeUnit.SECONDS));
+            CompletableFuture<Void> replaced = queue.submit("bc", "upsert", () -> {
+            });
+            CompletableFuture<Void> latest = queue.submit("bc", "upsert", () -> {
+                throw new IllegalStateException("conflict");
+            });
+            // replaced before it ran
+            replaced.get(10, TimeUnit.SECONDS);
+            blocked.countDown();
+            try {
+                latest.get(10, TimeUnit.SECONDS);
+                fail();
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof IllegalStateException);
+            }
+        } finally {
+            queue.shutdown();
+            timer.shutdown();
+        }
+    }
+}
@@ -0,0 +1,80 @@
+/**
+ * Copyright (C) 2016 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.fabric8.jenkins.openshiftsync;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+public class LastWrittenBuildStatusTest {
+
+    private static BuildStatusUpdate update(Map<String, String> annotations, String phase) {
+        return new BuildStatusUpdate("ns", "build-1", "uid", annotations, Collections.singleton("input"), phase,
+                "start", null, null);
+    }
+
+    @Test
+    public void testEverythingIsWrittenWithoutPreviousState() {
+        BuildStatusUpdate update = update(Collections.singletonMap("a", "1"), "Running");
+        assertSame(update, LastWrittenBuildStatus.diff(null, update));
+    }
+
+    @Test
+    public void testUnchangedUpdateIsSkipped() {
+        BuildStatusUpdate update = update(Collections.singletonMap("a", "1"), "Running");
+        LastWrittenBuildStatus last = LastWrittenBuildStatus.apply(null, update);
+        assertNull(LastWrittenBuildStatus.diff(last, update(Collections.singletonMap("a", "1"), "Running")));
+    }
+
+    @Test
+    public void testOnlyChangedFieldsArePatched() throws Exception {
+        Map<String, String> annotations = new HashMap<>();
+        annotations.put("a", "1");
+        annotations.put("b", "1");
+        LastWrittenBuildStatus last = LastWrittenBuildStatus.apply(null, update(annotations, "Running"));
+
+        Map<String, String> next = new HashMap<>(annotations);
+        next.put("b", "2");
+        BuildStatusUpdate changes = LastWrittenBuildStatus.diff(last, update(next, "Complete"));
+        assertEquals(Collections.singletonMap("b", "2"), changes.getAnnotations());
+        assertTrue(changes.getRemovedAnnotations().isEmpty());
+        assertEquals("Complete", changes.getPhase());
+        assertNull(changes.getStartTimestamp());
+        assertEquals("{\"metadata\":{\"annotations\":{\"b\":\"2\"}},\"status\":{\"phase\":\"Complete\"}}",
+                LastWrittenBuildStatus.toMergePatch(changes));
+        assertTrue(LastWrittenBuildStatus.apply(last, changes).isTerminal());
+    }
+
+    @Test
+    public void testRemovedAnnotationIsNulledOnce() throws Exception {
+        LastWrittenBuildStatus last = LastWrittenBuildStatus.apply(null, new BuildStatusUpdate("ns", "build-1",
+                "uid", Collections.singletonMap("input", "[]"), null, "Running", null, null, null));
+        BuildStatusUpdate changes = LastWrittenBuildStatus.diff(last, update(Collections.<String, String>emptyMap(),
+                "Running"));
+        assertEquals("{\"metadata\":{\"annotations\":{\"input\":null}},\"status\":{\"startTimestamp\":\"start\"}}",
+                LastWrittenBuildStatus.toMergePatch(changes));
+
+        last = LastWrittenBuildStatus.apply(last, changes);
+        assertNull(LastWrittenBuildStatus.diff(last, update(Collections.<String, String>emptyMap(), "Running")));
+    }
+}
@@ -0,0 +1,163 @@
+/**
+ * Copyright (C) 2016 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.fabric8.jenkins.openshiftsync;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+public class NamespaceFairExecutorTest {
+
+    @Test
+    public void testNamespacesTakeTurns() throws Exception {
+        NamespaceFairExecutor executor = new NamespaceFairExecutor(1, 0, "test");
+        try {
+            CountDownLatch started = new CountDownLatch(1);
+            CountDownLatch blocked = new CountDownLatch(1);
+            CountDownLatch done = new CountDownLatch(6);
+            List<String> order = new CopyOnWriteArrayList<>();
+            executor.submit("busy", "block", () -> {
+                started.countDown();
+                try {
+                    blocked.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            assertTrue(started.await(10, TimeUnit.SECONDS));
+            for (int i = 1; i <= 4; i++) {
+                String key = "busy-" + i;
+                executor.submit("busy", key, () -> {
+                    order.add(key);
+                    done.countDown();
+                });
+            }
+            for (int i = 1; i <= 2; i++) {
+                String key = "quiet-" + i;
+                executor.submit("quiet", key, () -> {
+                    order.add(key);
+                    done.countDown();
+                });
+            }
+            assertTrue(executor.getLagByNamespace().containsKey("quiet"));
+            blocked.countDown();
+            assertTrue(done.await(10, TimeUnit.SECONDS));
+            assertEquals(asList("busy-1", "quiet-1", "busy-2", "quiet-2", "busy-3", "busy-4"), order);
+            assertTrue(executor.getLagByNamespace().isEmpty());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testQueuedKeyIsNotQueuedTwice() throws Exception {
+        NamespaceFairExecutor executor = new NamespaceFairExecutor(1, 0, "test");
+        try {
+            CountDownLatch started = new CountDownLatch(1);
+            CountDownLatch blocked = new CountDownLatch(1);
+            executor.submit("ns", "block", () -> {
+                started.countDown();
+                try {
+                    blocked.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            assertTrue(started.await(10, TimeUnit.SECONDS));
+            assertTrue(executor.submit("ns", "run", () -> {
+            }));
+            assertFalse(executor.submit("ns", "run", () -> {
+            }));
+            assertEquals(1, executor.getQueueDepth());
+            blocked.countDown();
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testNamespaceCannotHoldEveryWorker() throws Exception {
+        NamespaceFairExecutor executor = new NamespaceFairExecutor(2, 0, "test");
+        try {
+            CountDownLatch started = new CountDownLatch(1);
+            CountDownLatch blocked = new CountDownLatch(1);
+            CountDownLatch quiet = new CountDownLatch(1);
+            for (int i = 1; i <= 2; i++) {
+                executor.submit("busy", "busy-" + i, () -> {
+                    started.countDown();
+                    try {
+                        blocked.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+            }
+            assertTrue(started.await(10, TimeUnit.SECONDS));
+            executor.submit("quiet", "quiet", quiet::countDown);
+            // busy-2 waits for busy-1, the second worker is left for quiet
+            assertTrue(quiet.await(10, TimeUnit.SECONDS));
+            blocked.countDown();
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testRunningKeyIsNotRunConcurrently() throws Exception {
+        NamespaceFairExecutor executor = new NamespaceFairExecutor(2, 2, "test");
+        try {
+            CountDownLatch started = new CountDownLatch(1);
+            CountDownLatch blocked = new CountDownLatch(1);
+            CountDownLatch done = new CountDownLatch(1);
+            AtomicInteger concurrent = new AtomicInteger();
+            List<Integer> seen = new CopyOnWriteArrayList<>();
+            executor.submit("ns", "run", () -> {
+                seen.add(concurrent.incrementAndGet());
+                started.countDown();
+                try {
+                    blocked.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                concurrent.decrementAndGet();
+            });
+            assertTrue(started.await(10, TimeUnit.SECONDS));
+            assertTrue(executor.submit("ns", "run", () -> {
+                seen.add(concurrent.incrementAndGet());
+                concurrent.decrementAndGet();
+                done.countDown();
+            }));
+            assertFalse(executor.submit("ns", "run", () -> {
+            }));
+            assertEquals(1, executor.getQueueDepth());
+            blocked.countDown();
+            assertTrue(done.await(10, TimeUnit.SECONDS));
+            assertEquals(asList(1, 1), seen);
+            assertEquals(0, executor.getQueueDepth());
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,60 @@
+/**
+ * Copyright (C) 2016 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.fabric8.jenkins.openshiftsync;
+
+import static io.fabric8.jenkins.openshiftsync.Constants.OPENSHIFT_ANNOTATIONS_BUILD_NUMBER;
+import static io.fabric8.jenkins.openshiftsync.Constants.OPENSHIFT_LABELS_BUILD_CONFIG_NAME;
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import io.fabric8.openshift.api.model.Build;
+import io.fabric8.openshift.api.model.BuildBuilder;
+
+public class NewBuildIndexTest {
+
+    @Test
+    public void testNewBuildsAreRunInBuildNumberOrder() {
+        List<Build> builds = JenkinsUtils.sortForRunPolicy(asList(build("ns", "a", "10", BuildPhases.NEW),
+                build("ns", "a", "9", BuildPhases.NEW), build("ns", "a", "11", BuildPhases.NEW),
+                build("ns", "a", "bad", BuildPhases.NEW)));
+        assertEquals(4, builds.size());
+        assertEquals("a-9", builds.get(0).getMetadata().getName());
+        assertEquals("a-10", builds.get(1).getMetadata().getName());
+        assertEquals("a-11", builds.get(2).getMetadata().getName());
+        assertEquals("a-bad", builds.get(3).getMetadata().getName());
+    }
+
+    @Test
+    public void testOnlyNewBuildsOfBuildConfigsAreIndexed() {
+        assertEquals(asList("ns/a"), NewBuildIndex.indexKeysOf(build("ns", "a", "1", BuildPhases.NEW)));
+        assertEquals(asList("other/a"), NewBuildIndex.indexKeysOf(build("other", "a", "1", BuildPhases.NEW)));
+        assertEquals(0, NewBuildIndex.indexKeysOf(build("ns", "a", "1", BuildPhases.RUNNING)).size());
+        assertEquals(0, NewBuildIndex.indexKeysOf(new BuildBuilder().withNewMetadata().withNamespace("ns")
+                .withName("manual").endMetadata().withNewStatus().withPhase(BuildPhases.NEW).endStatus().build())
+                .size());
+    }
+
+    private static Build build(String namespace, String buildConfigName, String number, String phase) {
+        return new BuildBuilder().withNewMetadata().withNamespace(namespace).withName(buildConfigName + "-" + number)
+                .addToLabels(OPENSHIFT_LABELS_BUILD_CONFIG_NAME, buildConfigName)
+                .addToAnnotations(OPENSHIFT_ANNOTATIONS_BUILD_NUMBER, number).endMetadata().withNewStatus()
+                .withPhase(phase).endStatus().build();
+    }
+}
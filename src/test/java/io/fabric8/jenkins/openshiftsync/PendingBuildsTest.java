@@ -0,0 +1,71 @@
+/**
+ * Copyright (C) 2016 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.fabric8.jenkins.openshiftsync;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import io.fabric8.openshift.api.model.Build;
+import io.fabric8.openshift.api.model.BuildBuilder;
+
+public class PendingBuildsTest {
+
+    @Test
+    public void testBuildsAreIndexedByBuildConfig() {
+        PendingBuilds pending = new PendingBuilds(1000, 10);
+        pending.add(build("ns", "a-1", "a"), 0);
+        pending.add(build("ns", "b-1", "b"), 0);
+        pending.add(build("ns", "a-2", "a"), 0);
+        pending.add(build("other", "a-1", "a"), 0);
+
+        List<Build> builds = pending.get("ns", "a", 0);
+        assertEquals(2, builds.size());
+        assertEquals("a-1", builds.get(0).getMetadata().getName());
+        assertEquals("a-2", builds.get(1).getMetadata().getName());
+
+        pending.remove(builds.get(0));
+        assertEquals(1, pending.get("ns", "a", 0).size());
+        assertEquals(3, pending.size());
+    }
+
+    @Test
+    public void testBuildsExpire() {
+        PendingBuilds pending = new PendingBuilds(1000, 10);
+        pending.add(build("ns", "a-1", "a"), 0);
+        pending.add(build("ns", "a-2", "a"), 500);
+        assertEquals(1, pending.get("ns", "a", 1200).size());
+        assertEquals(0, pending.getAll(1600).size());
+    }
+
+    @Test
+    public void testOldestBuildsAreEvicted() {
+        PendingBuilds pending = new PendingBuilds(1000, 2);
+        pending.add(build("ns", "a-1", "a"), 0);
+        pending.add(build("ns", "a-2", "a"), 1);
+        pending.add(build("ns", "a-3", "a"), 2);
+        List<Build> builds = pending.getAll(2);
+        assertEquals(2, builds.size());
+        assertEquals("a-2", builds.get(0).getMetadata().getName());
+    }
+
+    private static Build build(String namespace, String name, String buildConfigName) {
+        return new BuildBuilder().withNewMetadata().withNamespace(namespace).withName(name).endMetadata()
+                .withNewStatus().withNewConfig().withName(buildConfigName).endConfig().endStatus().build();
+    }
+}
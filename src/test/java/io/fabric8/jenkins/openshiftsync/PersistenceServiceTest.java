@@ -0,0 +1,117 @@
+/**
+ * Copyright (C) 2016 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.fabric8.jenkins.openshiftsync;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+
+import org.junit.Test;
+
+import hudson.model.Saveable;
+
+public class PersistenceServiceTest {
+
+    // long enough for the background writer never to run during a test
+    private static final long WINDOW = 60 * 60 * 1000;
+
+    @Test
+    public void testMarksWithinTheWindowAreMergedIntoOneSave() {
+        PersistenceService service = new PersistenceService();
+        CountingSaveable saveable = new CountingSaveable();
+        service.markDirty(saveable, WINDOW);
+        service.markDirty(saveable, WINDOW);
+        service.markDirty(saveable, WINDOW);
+        assertEquals(0, saveable.saves);
+        assertEquals(1, service.getDirtyCount());
+        assertEquals(2, service.getAvoidedCount());
+
+        service.flush();
+        assertEquals(1, saveable.saves);
+        assertEquals(0, service.getDirtyCount());
+        service.flush();
+        assertEquals(1, saveable.saves);
+    }
+
+    @Test
+    public void testNoWindowSavesRightAway() {
+        PersistenceService service = new PersistenceService();
+        CountingSaveable saveable = new CountingSaveable();
+        service.markDirty(saveable, 0);
+        service.markDirty(saveable, 0);
+        assertEquals(2, saveable.saves);
+        assertEquals(0, service.getDirtyCount());
+        assertEquals(2, service.getSavedCount());
+    }
+
+    @Test
+    public void testForgottenObjectIsNotSaved() {
+        PersistenceService service = new PersistenceService();
+        CountingSaveable saveable = new CountingSaveable();
+        service.markDirty(saveable, WINDOW);
+        service.forget(saveable);
+        service.flush();
+        assertEquals(0, saveable.saves);
+    }
+
+    @Test
+    public void testMarkDuringSaveIsNotLost() {
+        PersistenceService service = new PersistenceService();
+        CountingSaveable saveable = new CountingSaveable() {
+            @Override
+            public void save() throws IOException {
+                super.save();
+                if (saves == 1) {
+                    service.markDirty(this, WINDOW);
+                }
+            }
+        };
+        service.markDirty(saveable, WINDOW);
+        service.flush();
+        assertEquals(1, saveable.saves);
+        assertEquals(1, service.getDirtyCount());
+        service.flush();
+        assertEquals(2, saveable.saves);
+    }
+
+    @Test
+    public void testFailedSaveIsCounted() {
+        PersistenceService service = new PersistenceService();
+        service.markDirty(() -> {
+            throw new IOException("disk full");
+        }, WINDOW);
+        service.flush();
+        assertEquals(1, service.getFailedCount());
+        assertEquals(0, service.getDirtyCount());
+    }
+
+    @Test
+    public void testPendingSavesAreFlushedOnShutdown() {
+        CountingSaveable saveable = new CountingSaveable();
+        PersistenceService.get().markDirty(saveable, WINDOW);
+        PersistenceService.flushOnShutdown();
+        assertEquals(1, saveable.saves);
+    }
+
+    private static class CountingSaveable implements Saveable {
+        int saves;
+
+        @Override
+        public void save() throws IOException {
+            saves++;
+        }
+    }
+}
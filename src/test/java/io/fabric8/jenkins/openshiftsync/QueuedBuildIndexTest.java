@@ -0,0 +1,66 @@
+/**
+ * Copyright (C) 2016 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.fabric8.jenkins.openshiftsync;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.HashSet;
+
+import org.junit.Test;
+
+public class QueuedBuildIndexTest {
+
+    @Test
+    public void testItemsAreIndexedByBuildAndBuildConfig() {
+        QueuedBuildIndex.Index<String> index = new QueuedBuildIndex.Index<>();
+        index.put("b1", "bc1", "waiting-1");
+        index.put("b2", "bc1", "waiting-2");
+        index.put("b3", "bc2", "waiting-3");
+        index.put("b4", null, "waiting-4");
+
+        assertEquals("waiting-1", index.get("b1"));
+        assertEquals("waiting-4", index.get("b4"));
+        assertNull(index.get(null));
+        assertEquals(new HashSet<>(asList("waiting-1", "waiting-2")), new HashSet<>(index.getOfBuildConfig("bc1")));
+        assertEquals(asList("waiting-3"), index.getOfBuildConfig("bc2"));
+        assertEquals(0, index.getOfBuildConfig(null).size());
+    }
+
+    @Test
+    public void testItemIsReplacedAsItChangesState() {
+        QueuedBuildIndex.Index<String> index = new QueuedBuildIndex.Index<>();
+        index.put("b1", "bc1", "waiting");
+        index.put("b1", "bc1", "buildable");
+        assertEquals("buildable", index.get("b1"));
+        assertEquals(asList("buildable"), index.getOfBuildConfig("bc1"));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    public void testLeftItemsAreDropped() {
+        QueuedBuildIndex.Index<String> index = new QueuedBuildIndex.Index<>();
+        index.put("b1", "bc1", "waiting-1");
+        index.put("b2", "bc1", "waiting-2");
+        index.remove("b1", "bc1");
+        assertNull(index.get("b1"));
+        assertEquals(asList("waiting-2"), index.getOfBuildConfig("bc1"));
+        index.remove("b2", "bc1");
+        assertEquals(0, index.getOfBuildConfig("bc1").size());
+        assertEquals(0, index.size());
+    }
+}
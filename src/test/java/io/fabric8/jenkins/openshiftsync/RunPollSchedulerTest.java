@@ -0,0 +1,75 @@
+/**
+ * Copyright (C) 2016 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.fabric8.jenkins.openshiftsync;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class RunPollSchedulerTest {
+
+    @Test
+    public void testItemsBecomeDueAtTheirInterval() {
+        RunPollScheduler<String> scheduler = new RunPollScheduler<>(1000, 8, 0);
+        scheduler.schedule("a", "a", 2000, 0);
+        scheduler.schedule("b", "b", 5000, 0);
+
+        assertEquals(emptyList(), scheduler.advance(1500));
+        assertEquals(asList("a"), scheduler.advance(2000));
+        assertEquals(emptyList(), scheduler.advance(4999));
+        assertEquals(asList("b"), scheduler.advance(5000));
+        // due items stay registered until rescheduled or removed
+        assertEquals(2, scheduler.size());
+    }
+
+    @Test
+    public void testIntervalsLongerThanTheWheel() {
+        RunPollScheduler<String> scheduler = new RunPollScheduler<>(1000, 4, 0);
+        scheduler.schedule("a", "a", 10_000, 0);
+        assertEquals(emptyList(), scheduler.advance(9000));
+        assertEquals(asList("a"), scheduler.advance(10_000));
+    }
+
+    @Test
+    public void testRescheduleAndRemove() {
+        RunPollScheduler<String> scheduler = new RunPollScheduler<>(1000, 8, 0);
+        scheduler.schedule("a", "a", 1000, 0);
+        assertEquals(asList("a"), scheduler.advance(1000));
+
+        assertTrue(scheduler.reschedule("a", 4000, 1000));
+        assertEquals(4000, scheduler.getInterval("a"));
+        assertEquals(emptyList(), scheduler.advance(4000));
+        assertEquals(asList("a"), scheduler.advance(5000));
+
+        assertTrue(scheduler.remove("a"));
+        // a run removed while it was being polled is not put back
+        assertFalse(scheduler.reschedule("a", 1000, 5000));
+        assertEquals(-1, scheduler.getInterval("a"));
+        assertEquals(emptyList(), scheduler.advance(20_000));
+    }
+
+    @Test
+    public void testLongPauseStillDeliversEverything() {
+        RunPollScheduler<String> scheduler = new RunPollScheduler<>(1000, 4, 0);
+        scheduler.schedule("a", "a", 1000, 0);
+        scheduler.schedule("b", "b", 3000, 0);
+        assertEquals(asList("a", "b"), scheduler.advance(60_000));
+    }
+}
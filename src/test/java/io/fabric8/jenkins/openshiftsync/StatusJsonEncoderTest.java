@@ -0,0 +1,122 @@
+/**
+ * Copyright (C) 2016 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.fabric8.jenkins.openshiftsync;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class StatusJsonEncoderTest {
+
+    private static Map<String, Object> status(int stages, int nodesPerStage) {
+        List<Object> stageList = new ArrayList<>();
+        for (int i = 0; i < stages; i++) {
+            Map<String, Object> stage = new LinkedHashMap<>();
+            stage.put("id", String.valueOf(i));
+            stage.put("name", "stage-" + i);
+            stage.put("status", i == stages - 1 ? "IN_PROGRESS" : "SUCCESS");
+            List<Object> nodes = new ArrayList<>();
+            for (int j = 0; j < nodesPerStage; j++) {
+                Map<String, Object> node = new LinkedHashMap<>();
+                node.put("id", i + "-" + j);
+                node.put("name", "Shell Script");
+                node.put("status", "SUCCESS");
+                nodes.add(node);
+            }
+            stage.put("stageFlowNodes", nodes);
+            stageList.add(stage);
+        }
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("id", "1");
+        status.put("status", "IN_PROGRESS");
+        status.put("stages", stageList);
+        return status;
+    }
+
+    @Test
+    public void testSmallStatusIsUnchanged() throws Exception {
+        StatusJsonEncoder.Encoded encoded = StatusJsonEncoder.encode(status(2, 2), 10_000, false);
+        assertFalse(encoded.isTruncated());
+        assertNull(encoded.getEncoding());
+        assertEquals(new ObjectMapper().writeValueAsString(status(2, 2)), encoded.getValue());
+    }
+
+    @Test
+    public void testFinishedStagesLoseFlowNodesFirst() throws Exception {
+        String full = StatusJsonEncoder.toJson(status(3, 50));
+        StatusJsonEncoder.Encoded encoded = StatusJsonEncoder.encode(status(3, 50), full.length() / 2, false);
+        assertTrue(encoded.isTruncated());
+        assertTrue(encoded.getValue().length() <= full.length() / 2);
+
+        JsonNode tree = new ObjectMapper().readTree(encoded.getValue());
+        assertEquals(0, tree.get("stages").get(0).get("stageFlowNodes").size());
+        assertEquals(50, tree.get("stages").get(2).get("stageFlowNodes").size());
+        assertEquals(tree.get(StatusJsonEncoder.TRUNCATED_FLOW_NODES).asInt(), 50 * 3
+                - tree.get("stages").get(1).get("stageFlowNodes").size() - 50);
+
+        // same input, same output
+        assertEquals(encoded.getValue(), StatusJsonEncoder.encode(status(3, 50), full.length() / 2, false).getValue());
+    }
+
+    @Test
+    public void testStagesAreSummarizedAsLastResort() throws Exception {
+        StatusJsonEncoder.Encoded encoded = StatusJsonEncoder.encode(status(20, 5), 1_200, false);
+        JsonNode tree = new ObjectMapper().readTree(encoded.getValue());
+        assertEquals(20, tree.get("stages").size());
+        assertFalse(tree.get("stages").get(0).has("stageFlowNodes"));
+        assertEquals(100, tree.get(StatusJsonEncoder.TRUNCATED_FLOW_NODES).asInt());
+    }
+
+    @Test
+    public void testLastStagesAreDroppedToFitTheBudget() throws Exception {
+        StatusJsonEncoder.Encoded encoded = StatusJsonEncoder.encode(status(200, 5), 2_000, false);
+        assertTrue(encoded.isTruncated());
+        assertTrue(encoded.getValue().length() <= 2_000);
+        JsonNode tree = new ObjectMapper().readTree(encoded.getValue());
+        int kept = tree.get("stages").size();
+        assertTrue(kept > 0 && kept < 200);
+        assertEquals("stage-0", tree.get("stages").get(0).get("name").asText());
+        assertEquals(200 - kept, tree.get(StatusJsonEncoder.TRUNCATED_STAGES).asInt());
+
+        encoded = StatusJsonEncoder.encode(status(200, 5), 2_000, true);
+        assertTrue(encoded.getValue().length() <= 2_000);
+    }
+
+    @Test
+    public void testCompressedStatusRoundTrips() throws Exception {
+        StatusJsonEncoder.Encoded encoded = StatusJsonEncoder.encode(status(3, 50), 0, true);
+        assertEquals(Constants.STATUS_JSON_ENCODING_GZIP_BASE64, encoded.getEncoding());
+        byte[] gzipped = Base64.getDecoder().decode(encoded.getValue());
+        String json = new String(IOUtils.toByteArray(new GZIPInputStream(new ByteArrayInputStream(gzipped))), UTF_8);
+        assertEquals(StatusJsonEncoder.toJson(status(3, 50)), json);
+    }
+}